@@ -91,12 +91,18 @@ public class Controller {
 						}
 					}
 					@Override
+					public void makeBalls(int count, IPaintStrategyFac paintFac, IUpdateStrategyFac updateFac) {
+						if (null != updateFac && null != paintFac) {
+							model.makeBalls(count, paintFac, updateFac); 
+						}
+					}
+					@Override
 					public void makeSwitcherBall(IPaintStrategyFac paintFac) {
 						model.makeBall(paintFac.make(), model.getSwitcherStrategy());
 					}
 					@Override
 					public void switchBalls(IUpdateStrategyFac selectedItem) {
-						model.switchUpdateStrat(selectedItem.make());
+						model.switchUpdateStrat(selectedItem);
 					}
 					@Override
 					public void clearBalls() {
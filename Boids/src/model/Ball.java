@@ -1,38 +1,46 @@
 package model;
 
-import java.util.function.IntConsumer;
-
 import util.IDispatcher;
+import util.ColorPalette;
 import util.IObserver;
+import util.IRandomizer;
+import util.Randomizer;
 
 import java.awt.Color;
 import java.awt.Component;
 import java.awt.Graphics;
-import java.awt.Point;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
 
 
 /**
- * The Ball class defines a sprite that can be updated by Observable
+ * The Ball class defines a sprite that can be updated by Observable.
+ * Its location, velocity, radius and color live in a slot of an IBallStore, which the ball is a view over.
  * @author kq2
  */
 public class Ball implements IObserver<IBallCmd> {
 
 	/**
-	 * The radius of this ball
+	 * The store that holds the location, velocity, radius and color of this ball
 	 */
-	private int radius;
+	private final IBallStore store;
 	/**
-	 * The color of this ball
+	 * The id of this ball's slot in the store
 	 */
-	private Color color;
+	private final int id;
 	/**
-	 * The center location of this ball
+	 * The generation of this ball's slot when the ball was put in it
 	 */
-	private Point center;
+	private final int generation;
 	/**
-	 * The velocity of this ball
+	 * The last color handed out by getColor(), kept so painting does not look up the Color every time, 
+	 * or null before the first time
 	 */
-	private Point vel;
+	private Color color;
+	/**
+	 * The random stream of this ball, which its strategies draw from
+	 */
+	private final IRandomizer rand;
 	/**
 	 * The canvas that paints this ball
 	 */
@@ -45,36 +53,81 @@ public class Ball implements IObserver<IBallCmd> {
 	 * The strategy this sprite uses to interact with other
 	 */
 	private IInteractStrategy interactStrat;
+	/**
+	 * The strategy this sprite uses for symmetric interactions in the current tick
+	 */
+	private IPairStrategy pairStrat = IPairStrategy.NULL_STRATEGY;
 	/**
 	 * The strategy this sprite uses to paint itself
 	 */
 	private IPaintStrategy paintStrat;
+	/**
+	 * The balls this ball is to interact with once the update pass is over, made when first needed
+	 */
+	private ArrayList<Ball> pendingTargets = null;
 	/**
 	 * The initial radius of ball, used in breathing strategy
 	 */
 	private final int initRadius;
 
 	/**
-	 * Create a ball that can move bounce update and paint
+	 * Create a ball that can move bounce update and paint, in a new slot of the given store
+	 * @param store The store that holds the state of this ball
 	 * @param radius The radius of this ball
 	 * @param color The color of this ball
 	 * @param center The center location of this ball
 	 * @param vel The velocity of this ball
 	 * @param canvas The canvas contains this ball
+	 * @param rand The random stream of this ball, used by no other ball
 	 * @param updateStrat The update strategy of this ball
 	 * @param paintStrat The paint strategy of this ball
 	 */
-	public Ball(int radius, Color color, Point center, Point vel, Component canvas, IUpdateStrategy updateStrat, IPaintStrategy paintStrat) {
-		this.radius = radius;
-		this.color = color;
-		this.center = center;
-		this.vel = vel;
+	public Ball(IBallStore store, int radius, Color color, Point2D center, Point2D vel, Component canvas, IRandomizer rand, IUpdateStrategy updateStrat, IPaintStrategy paintStrat) {
+		this(store, radius, color.getRGB(), center, vel, canvas, rand, updateStrat, paintStrat);
+	}
+
+	/**
+	 * Create a ball with a color given as packed ARGB, e.g. drawn in bulk, so no Color is made 
+	 * until the ball is painted
+	 * @param store The store that holds the state of this ball
+	 * @param radius The radius of this ball
+	 * @param argb The color of this ball as packed ARGB
+	 * @param center The center location of this ball
+	 * @param vel The velocity of this ball
+	 * @param canvas The canvas contains this ball
+	 * @param rand The random stream of this ball, used by no other ball
+	 * @param updateStrat The update strategy of this ball
+	 * @param paintStrat The paint strategy of this ball
+	 */
+	public Ball(IBallStore store, int radius, int argb, Point2D center, Point2D vel, Component canvas, IRandomizer rand, IUpdateStrategy updateStrat, IPaintStrategy paintStrat) {
+		this.store = store;
+		this.id = store.add(center.getX(), center.getY(), vel.getX(), vel.getY(), radius, argb);
+		this.generation = store.getGeneration(id);
 		this.canvas = canvas;
+		this.rand = rand;
 		this.setInteractStrategy(IInteractStrategy.NULL_STRATEGY);
 		this.setUpdateStrategy(updateStrat);
 		this.setPaintStrategy(paintStrat);
 		initRadius = radius;
 	}
+
+	/**
+	 * Create a read-only view of a ball that is already in the given store, e.g. in a frame that is 
+	 * being painted. Unlike the other constructor, it does not add anything to the store, and it 
+	 * has no canvas and only null strategies.
+	 * @param store The store that holds the state of the ball
+	 * @param id The id of the ball's slot in the store
+	 */
+	Ball(IBallStore store, int id) {
+		this.store = store;
+		this.id = id;
+		this.generation = store.getGeneration(id);
+		this.rand = Randomizer.Singleton;
+		this.updateStrat = IUpdateStrategy.NULL_OBJECT;
+		this.interactStrat = IInteractStrategy.NULL_STRATEGY;
+		this.paintStrat = IPaintStrategy.NULL_OBJECT;
+		initRadius = store.getRadius(id);
+	}
 	
 	/**
 	 * Interact with another ball
@@ -85,6 +138,29 @@ public class Ball implements IObserver<IBallCmd> {
 		getInteractStrategy().interact(this, target, disp);
 	}
 
+	/**
+	 * Interact with another ball once the update pass is over. Update strategies use it instead of 
+	 * interactWith(), since an interaction may change the other ball, which another worker may be 
+	 * updating or reading at the same time in a parallel tick.
+	 * @param target Another ball
+	 */
+	public void interactLater(Ball target) {
+		if (null == pendingTargets) pendingTargets = new ArrayList<Ball>();
+		pendingTargets.add(target);
+	}
+
+	/**
+	 * Run the interactions asked for with interactLater() since the last call, in the order they were asked for
+	 * @param disp A dispatcher that dispatch IBallCmd
+	 */
+	public void runPendingInteractions(IDispatcher<IBallCmd> disp) {
+		if (null == pendingTargets) return;
+		for (int i = 0; i < pendingTargets.size(); i++) {
+			interactWith(pendingTargets.get(i), disp);
+		}
+		pendingTargets.clear();
+	}
+
 	/**
 	 * The update method called by the main ball Dispatcher to notify all the balls to perform the given command.
 	 * The given command is executed.
@@ -106,42 +182,24 @@ public class Ball implements IObserver<IBallCmd> {
 	 * Move to a new location
 	 */
 	public void move() {
-		center.translate(vel.x, vel.y);
-	}
-
-	/**
-	 * Bounce in one dimension
-	 * @param curLoc a current location
-	 * @param radius a radius in this dimension
-	 * @param minBound The minimum location in canvas
-	 * @param maxBound The maximum location in canvas
-	 * @param bounceFn A lambda function for either horizontal or vertical bounce
-	 */
-	public void bounce1D(int curLoc, int radius, int minBound, int maxBound, IntConsumer bounceFn) {
-		// out of minimum bound
-		if (curLoc - radius < minBound) {
-			int newLoc = curLoc + 2 * (minBound - curLoc + radius);
-			bounceFn.accept(newLoc);		
-			// out of maximum bound
-		} else if (curLoc + radius > maxBound) {
-			int newLoc = curLoc - 2 * (curLoc - maxBound + radius);
-			bounceFn.accept(newLoc);	
-			// still inside bounds
-		} else {
-			// no bounce
-		}
+		store.move(id);
 	}
 
 	/**
 	 * Bounce this sprite against canvas borders
 	 */
 	public void bounce() {
-		// bounce horizontally
-		bounce1D(center.x, radius, 0, canvas.getWidth(), 
-				(x) -> {center.x = x; vel.x *= -1;});
-		// bounce vertically
-		bounce1D(center.y, radius, 0, canvas.getHeight(), 
-				(y) -> {center.y = y; vel.y *= -1;});
+		store.bounce(id, canvas.getWidth(), canvas.getHeight());
+	}
+
+	/**
+	 * Bounce this sprite against the borders of a canvas of the given size, 
+	 * e.g. off the GUI thread, where the canvas itself must not be asked for its size
+	 * @param width The width of the canvas
+	 * @param height The height of the canvas
+	 */
+	public void bounce(int width, int height) {
+		store.bounce(id, width, height);
 	}
 	
 	/**
@@ -150,15 +208,72 @@ public class Ball implements IObserver<IBallCmd> {
 	 * @return The distance to the other ball
 	 */
 	public double distance(Ball other) {
-		return center.distance(other.getLoc());
+		return Point2D.distance(getX(), getY(), other.getX(), other.getY());
 	}
 	
 	/**
-	 * Returns the center location of this sprite
+	 * Get the store that holds the state of this ball and of the other balls of its world
+	 * @return the store of this ball
+	 */
+	public IBallStore getStore() {
+		return store;
+	}
+
+	/**
+	 * Get the id of this ball's slot in the store
+	 * @return the id of this ball
+	 */
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * Whether this ball was removed from its store, after which its slot may hold another ball
+	 * @return true if the slot of this ball was freed since the ball was made
+	 */
+	public boolean isRemoved() {
+		return store.getGeneration(id) != generation;
+	}
+	
+	/**
+	 * Returns a copy of the center location of this sprite. Use setLoc() to move it.
 	 * @return the center location of this ball
 	 */
-	public Point getLoc() {
-		return center;
+	public Point2D.Double getLoc() {
+		return new Point2D.Double(getX(), getY());
+	}
+
+	/**
+	 * Returns the horizontal center location of this sprite
+	 * @return the horizontal center location of this ball
+	 */
+	public double getX() {
+		return store.getX(id);
+	}
+
+	/**
+	 * Returns the vertical center location of this sprite
+	 * @return the vertical center location of this ball
+	 */
+	public double getY() {
+		return store.getY(id);
+	}
+
+	/**
+	 * Returns the horizontal center location of this sprite at the last snapshot of the ball store.
+	 * Use it to look at other balls during a pass, so the result does not depend on the update order.
+	 * @return the previous horizontal center location of this ball
+	 */
+	public double getPrevX() {
+		return store.getPrevX(id);
+	}
+
+	/**
+	 * Returns the vertical center location of this sprite at the last snapshot of the ball store
+	 * @return the previous vertical center location of this ball
+	 */
+	public double getPrevY() {
+		return store.getPrevY(id);
 	}
 
 	/**
@@ -167,7 +282,7 @@ public class Ball implements IObserver<IBallCmd> {
 	 * @param y a vertical location
 	 */
 	public void setLoc(double x, double y) {
-		center.setLocation(x, y);
+		store.setLoc(id, x, y);
 	}
 
 	/**
@@ -175,7 +290,15 @@ public class Ball implements IObserver<IBallCmd> {
 	 * @return the radius of this ball
 	 */
 	public int getRadius() {
-		return radius;
+		return store.getRadius(id);
+	}
+
+	/**
+	 * Returns the radius of this sprite at the last snapshot of the ball store
+	 * @return the previous radius of this ball
+	 */
+	public int getPrevRadius() {
+		return store.getPrevRadius(id);
 	}
 
 	/**
@@ -183,15 +306,47 @@ public class Ball implements IObserver<IBallCmd> {
 	 * @param radius the new radius of this sprite
 	 */
 	public void setRadius(int radius) {
-		this.radius = radius;
+		store.setRadius(id, radius);
 	}
 
 	/**
-	 * Get the velocity of this sprite
+	 * Get a copy of the velocity of this sprite. Use setVel() to change it.
 	 * @return the velocity of this ball
 	 */
-	public Point getVel() {
-		return vel;
+	public Point2D.Double getVel() {
+		return new Point2D.Double(getVelX(), getVelY());
+	}
+
+	/**
+	 * Get the horizontal velocity of this sprite
+	 * @return the horizontal velocity of this ball
+	 */
+	public double getVelX() {
+		return store.getVelX(id);
+	}
+
+	/**
+	 * Get the vertical velocity of this sprite
+	 * @return the vertical velocity of this ball
+	 */
+	public double getVelY() {
+		return store.getVelY(id);
+	}
+
+	/**
+	 * Get the horizontal velocity of this sprite at the last snapshot of the ball store
+	 * @return the previous horizontal velocity of this ball
+	 */
+	public double getPrevVelX() {
+		return store.getPrevVelX(id);
+	}
+
+	/**
+	 * Get the vertical velocity of this sprite at the last snapshot of the ball store
+	 * @return the previous vertical velocity of this ball
+	 */
+	public double getPrevVelY() {
+		return store.getPrevVelY(id);
 	}
 
 	/**
@@ -200,9 +355,18 @@ public class Ball implements IObserver<IBallCmd> {
 	 * @param v a vertical velocity
 	 */
 	public void setVel(double u, double v) {
-		vel.setLocation(u, v);
+		store.setVel(id, u, v);
 	}
 	
+	/**
+	 * Get the random stream of this ball. The strategies of the ball draw from it, 
+	 * so that a seeded world behaves the same however its balls are spread over threads.
+	 * @return the random stream of this ball
+	 */
+	public IRandomizer getRandomizer() {
+		return rand;
+	}
+
 	/**
 	 * Get the canvas that paints this sprite
 	 * @return the canvas that paints this ball
@@ -224,14 +388,36 @@ public class Ball implements IObserver<IBallCmd> {
 	 * @return the new color
 	 */
 	public Color getColor() {
+		int argb = store.getColor(id);
+		if (null == color || color.getRGB() != argb) {
+			color = ColorPalette.toColor(argb);
+		}
 		return color;
 	}
 
+	/**
+	 * Get the color of this ball as packed ARGB, without making a Color
+	 * @return the color of this ball
+	 */
+	public int getArgb() {
+		return store.getColor(id);
+	}
+
+	/**
+	 * Set the color of this ball as packed ARGB, without making a Color, 
+	 * e.g. to a ColorPalette color, which painting then finds interned
+	 * @param argb the new color
+	 */
+	public void setArgb(int argb) {
+		store.setColor(id, argb);
+	}
+
 	/**
 	 * Set the color of this ball
 	 * @param color initial vertical radius
 	 */
 	public void setColor(Color color) {
+		store.setColor(id, color.getRGB());
 		this.color = color;
 	}
 
@@ -293,6 +479,23 @@ public class Ball implements IObserver<IBallCmd> {
 		this.interactStrat = strategy;
 	}
 	
+	/**
+	 * Get the pair strategy
+	 * @return The pair strategy
+	 */
+	public IPairStrategy getPairStrategy() {
+		return pairStrat;
+	}
+	
+	/**
+	 * Set the pair strategy for this ball. The model resets it before every update, 
+	 * so an update strategy that wants the ball in the pair pass sets it on every update.
+	 * @param strategy A new pair strategy
+	 */
+	public void setPairStrategy(IPairStrategy strategy) {
+		this.pairStrat = strategy;
+	}
+	
 	@Override
 	public void execute(IDispatcher<IBallCmd> disp, IBallCmd cmd) {
 		cmd.apply(this, disp);
@@ -5,6 +5,21 @@ import java.awt.Point;
 import java.awt.Graphics;
 import java.awt.Rectangle;
 import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.geom.Point2D;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 import javax.swing.Timer;
 
@@ -24,21 +39,113 @@ public class BallModel {
 	 * Adapter to the view for control tasks.
 	 */
 	private IViewCntrlAdapter viewCntrlAdpt;
+	/**
+	 * The size of the canvas, kept here so the simulation thread never asks the canvas itself, 
+	 * which only the GUI thread may touch. Empty until start() first reads it on the GUI thread, 
+	 * which then replaces it whenever the canvas is resized.
+	 */
+	private volatile Dimension canvasSize;
 	/**
 	 * Adapter to the view for update tasks.
 	 */
 	private IViewUpdateAdapter viewUpdateAdpt = IViewUpdateAdapter.NULL_OBJECT;
 	/**
-	 * The dispatcher that updates all the balls.
+	 * Tells the spatial index where a ball is and how far it reaches, i.e. its radius plus 
+	 * the distance it covers in one tick, so that contact queries also find the balls that 
+	 * touched somewhere along the way during the last tick.
+	 */
+	private static final ILocator<IObserver<IBallCmd>> ballLocator = new ILocator<IObserver<IBallCmd>>() {
+		@Override
+		public double getX(IObserver<IBallCmd> ball) {
+			return ((Ball) ball).getX();
+		}
+		@Override
+		public double getY(IObserver<IBallCmd> ball) {
+			return ((Ball) ball).getY();
+		}
+		@Override
+		public double getExtent(IObserver<IBallCmd> ball) {
+			Ball b = (Ball) ball;
+			return b.getRadius() + Math.sqrt(b.getVelX() * b.getVelX() + b.getVelY() * b.getVelY());
+		}
+	};
+	/**
+	 * The store that holds the location, velocity, radius and color of all the balls
+	 */
+	private final IBallStore store;
+	/**
+	 * The largest query radius that is answered by the sweep-and-prune index. 
+	 * Covers a ball's own radius plus its reach in one tick.
+	 */
+	private static final double CONTACT_RANGE = 64.0;
+	/**
+	 * The sweep-and-prune index that answers contact-sized queries and finds the touching pairs.
+	 */
+	private SweepAndPrune<IObserver<IBallCmd>> contactIndex = new SweepAndPrune<IObserver<IBallCmd>>(ballLocator);
+	/**
+	 * The dispatcher that updates all the balls. Contact-sized queries from the collision
+	 * strategies go to the contact index. Larger queries go to a grid whose cells are as big as 
+	 * the largest flocking query plus the reach of a ball, so a flocking ball only needs to look at the 3x3 cells around it.
+	 * A ball's slot in the store is only freed when the ball actually leaves the dispatcher, 
+	 * i.e. at the end of the tick it was killed in, so no ball is given a slot that a ball of the tick still uses.
+	 */
+	private SpatialDispatcher<IBallCmd> dispatcher = new SpatialDispatcher<IBallCmd>(
+			new TieredSpatialIndex<IObserver<IBallCmd>>(
+					contactIndex, 
+					new UniformGrid<IObserver<IBallCmd>>(FlockingStrategy.RANGE_SENSE + FlockingStrategy.DEFAULT_SKIN, ballLocator), 
+					CONTACT_RANGE)) {
+		@Override
+		protected void observerRemoved(IObserver<IBallCmd> obs) {
+			store.remove(((Ball) obs).getId());
+		}
+	};
+
+	/**
+	 * The order the balls are periodically sorted into, so that balls near each other are 
+	 * dispatched one after another and sit next to each other in the index buckets.
+	 */
+	private static final Comparator<IObserver<IBallCmd>> spatialOrder = MortonOrder.comparator(ballLocator, CONTACT_RANGE);
+	/**
+	 * The number of ticks between two sorts of the balls into spatial order
+	 */
+	private static final int SORT_PERIOD = 50;
+	/**
+	 * The number of ticks since the balls were last sorted into spatial order
+	 */
+	private int ticksSinceSort = 0;
+	/**
+	 * The engine that processes the collisions of the balls with the CollisionEventEngine.PREDICTED pair strategy
 	 */
-	private IDispatcher<IBallCmd> dispatcher = new SetDispatcherSequential<IBallCmd>();
+	private CollisionEventEngine collisionEngine = new CollisionEventEngine();
+
+	/**
+	 * The frames the simulation publishes for painting, so painting never waits for a tick and a tick never waits for painting
+	 */
+	private final TripleBuffer<RenderFrame> frames = new TripleBuffer<RenderFrame>(new RenderFrame(), new RenderFrame(), new RenderFrame());
+	/**
+	 * Whether balls were made or cleared since the last frame was published
+	 */
+	private volatile boolean framePending = false;
+	/**
+	 * The lock that a tick and the changes to the balls made from other threads take turns on
+	 */
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/**
+	 * The workers of the parallel tick, made when it is first turned on
+	 */
+	private ForkJoinPool workers = null;
+	/**
+	 * Splits the balls into strips for the parallel tick, or null when the tick runs on the calling thread
+	 */
+	private StripPartition strips = null;
 
 	/**
 	 * The paint time interval between timer ticks, in milliseconds
 	 */
 	private int paintTimeSlice = 40;
 	/**
-	 * The update time interval between timer ticks, in milliseconds
+	 * The update time interval between simulation ticks, in milliseconds
 	 */
 	private int updateTimeSlice = 30;
 	/**
@@ -46,9 +153,18 @@ public class BallModel {
 	 */
 	private Timer paintTimer = new Timer(paintTimeSlice, (e) -> viewPaintAdpt.paint());
 	/**
-	 * The timer that updates this ball model, which is independent from view. 
+	 * The simulation thread that updates this ball model at a fixed rate, off the GUI thread, 
+	 * so the GUI thread only paints.
+	 */
+	private FixedStepLoop updateLoop = new FixedStepLoop("simulation", () -> viewUpdateAdpt.update(), updateTimeSlice);
+	/**
+	 * The shared scheduler that runs the updates instead of the simulation thread, or null to use the simulation thread
 	 */
-	private Timer updateTimer = new Timer(updateTimeSlice, (e) -> viewUpdateAdpt.update());
+	private TickScheduler scheduler = null;
+	/**
+	 * The updates scheduled on the shared scheduler while they run, or null
+	 */
+	private ScheduledFuture<?> scheduledUpdates = null;
 	/**
 	 * A factory for a painting error strategy that paint a error message on canvas
 	 */
@@ -110,6 +226,11 @@ public class BallModel {
 	 */
 	private SwitcherStrategy switcherStrategy = new SwitcherStrategy();
 
+	/**
+	 * The bound constructors of the strategy classes loaded so far, by class name
+	 */
+	private final ConcurrentHashMap<String, Supplier<?>> strategyMakers = new ConcurrentHashMap<String, Supplier<?>>();
+
 	/**
 	 * The minimum/maximum radius for a new ball
 	 */
@@ -119,49 +240,167 @@ public class BallModel {
 	 */
 	Rectangle rangeVel = new Rectangle(5, 5, 10, 10);
 	/**
-	 * The factory that produces all kinds of random data
+	 * The factory that produces all kinds of random data, and splits into the random stream of every new ball
 	 */
-	private Randomizer rand = Randomizer.Singleton;
+	private IRandomizer rand = Randomizer.Singleton;
+	/**
+	 * Whether the world is seeded, so that a parallel tick interacts the pairs in the same order as a sequential one
+	 */
+	private boolean deterministic = false;
 
 	/**
-	 * Create a model of ball world
+	 * Create a model of ball world that keeps the ball state on the heap
 	 * @param viewPaintAdpt The instance of model-to-view adaptor
 	 */
 	public BallModel(IViewPaintAdapter viewPaintAdpt, IViewCntrlAdapter viewCntrlAdpt, IViewUpdateAdapter viewUpdateAdpt) {
+		this(viewPaintAdpt, viewCntrlAdpt, viewUpdateAdpt, new BallStore());
+	}
+
+	/**
+	 * Create a model of ball world that keeps the ball state in the given store, 
+	 * e.g. a DirectBallStore for worlds with millions of balls
+	 * @param viewPaintAdpt The instance of model-to-view adaptor
+	 * @param store An empty store for the ball state
+	 */
+	public BallModel(IViewPaintAdapter viewPaintAdpt, IViewCntrlAdapter viewCntrlAdpt, IViewUpdateAdapter viewUpdateAdpt, IBallStore store) {
+		this.store = store;
 		this.viewPaintAdpt = viewPaintAdpt;
 		this.viewCntrlAdpt = viewCntrlAdpt;
 		this.viewUpdateAdpt = viewUpdateAdpt;
+		this.canvasSize = new Dimension();
 	}
 
 	/**
-	 * Start the update timer
+	 * Start the paint and update timers, and follow the size of the canvas from now on. 
+	 * Must be called from the GUI thread.
 	 */
 	public void start() {
+		Component canvas = viewCntrlAdpt.getCanvas();
+		canvas.addComponentListener(new ComponentAdapter() {
+			@Override
+			public void componentResized(ComponentEvent e) {
+				canvasSize = e.getComponent().getSize();
+			}
+		});
+		canvasSize = canvas.getSize();
 		paintTimer.start();
-		updateTimer.start();
+		startUpdate();
+	}
+
+	/**
+	 * Set the size of the canvas the balls live in, e.g. for a world without a view, 
+	 * which never calls start() and so does not follow the canvas. Such a world must set the size 
+	 * before making balls, since the size is empty until then.
+	 * @param width The width of the canvas
+	 * @param height The height of the canvas
+	 */
+	public void setCanvasSize(int width, int height) {
+		canvasSize = new Dimension(width, height);
 	}
 	
 	/**
-	 * Check if update timer is running
+	 * Check if the updates are running
 	 */
 	public boolean isRunning() {
-		return updateTimer.isRunning();
+		return null == scheduler ? updateLoop.isRunning() : null != scheduledUpdates;
 	}
 	
 	/**
-	 * Stop the update timer
+	 * Stop the updates
 	 */
 	public void stopUpdate() {
-		updateTimer.stop();
+		updateLoop.stop();
+		if (null != scheduledUpdates) {
+			scheduledUpdates.cancel(false);
+			scheduledUpdates = null;
+		}
 	}
 	
 	/**
-	 * Start the update timer
+	 * Start the updates
 	 */
 	public void startUpdate() {
-		updateTimer.start();
+		if (null == scheduler) {
+			updateLoop.start();
+		} else if (null == scheduledUpdates) {
+			scheduledUpdates = scheduler.schedule(() -> viewUpdateAdpt.update(), updateTimeSlice);
+		}
+	}
+
+	/**
+	 * Run the updates on the given shared scheduler instead of the simulation thread, so that many worlds 
+	 * can share a few threads. The updates then run on the scheduler's threads, so this is meant for 
+	 * worlds without a view, which only call startUpdate() and not start(). 
+	 * @param scheduler The shared scheduler, or null to go back to the simulation thread
+	 */
+	public void setScheduler(TickScheduler scheduler) {
+		boolean running = isRunning();
+		stopUpdate();
+		this.scheduler = scheduler;
+		if (running) startUpdate();
+	}
+
+	/**
+	 * Fast-forward the simulation thread by running several ticks per update time interval
+	 * @param ticksPerStep The number of ticks per update time interval, 1 for normal speed
+	 */
+	public void setTurbo(int ticksPerStep) {
+		updateLoop.setTicksPerStep(ticksPerStep);
+	}
+
+	/**
+	 * Get the number of ticks the simulation thread actually ran per second, over the last second
+	 * @return The achieved tick rate
+	 */
+	public double getTickRate() {
+		return updateLoop.getTickRate();
 	}
 	
+	/**
+	 * Turn the parallel tick on or off. In a parallel tick, the balls are updated and their pairs 
+	 * interacted strip by strip on one worker per processor. Only turn it on when the update 
+	 * strategies in use do not share state between balls. The factories and the switcher give every 
+	 * ball its own instance of the strategies that keep state, e.g. flocking, so all the built-in ones qualify.
+	 * @param parallel Whether to run the tick in parallel
+	 */
+	public void setParallel(boolean parallel) {
+		lock.lock();
+		try {
+			if (parallel && null == workers) {
+				workers = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+			}
+			strips = parallel ? new StripPartition(workers) : null;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Seed this world and make it deterministic. The balls made from now on get their location, velocity, 
+	 * radius, color and random stream from the seed, so the same seed and the same calls give the same balls. 
+	 * Every ball's strategies draw from the ball's own stream, and a parallel tick then interacts the 
+	 * pairs of balls in the same order as a sequential tick, so a parallel run gives bit-identical 
+	 * trajectories to a sequential run. Only the ball updates still run in parallel.
+	 * @param seed The seed of the world
+	 */
+	public void setSeed(long seed) {
+		lock.lock();
+		try {
+			rand = new Randomizer(seed);
+			deterministic = true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Check if the tick runs in parallel
+	 * @return true if the tick runs in parallel
+	 */
+	public boolean isParallel() {
+		return null != strips;
+	}
+
 	/**
 	 * Add a ball (sprite) to this ball world (dispatcher). 
 	 * @param strategy A strategy that ball should use to update
@@ -170,39 +409,190 @@ public class BallModel {
 	 */
 	public void makeBall(IPaintStrategy paintStrat, IUpdateStrategy updateStrat) {
 		Component canvas = viewCntrlAdpt.getCanvas();
-		Color color = rand.randomColor();
-		Point vel = rand.randomVel(rangeVel);
-		int radius = rand.randomInt(minRadius, maxRadius);
-		Point center = rand.randomLoc(new Rectangle(radius, radius, canvas.getWidth()-radius, canvas.getHeight()-radius));
-		dispatcher.addObserver(new Ball(radius, color, center, vel, canvas, updateStrat, paintStrat));
+		Dimension size = canvasSize;
+		lock.lock();
+		try {
+			Color color = rand.randomColor();
+			Point vel = rand.randomVel(rangeVel);
+			int radius = rand.randomInt(minRadius, maxRadius);
+			Point center = rand.randomLoc(new Rectangle(radius, radius, size.width-radius, size.height-radius));
+			dispatcher.addObserver(new Ball(store, radius, color, center, vel, canvas, rand.split(), updateStrat, paintStrat));
+			framePending = true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Add many balls to this ball world (dispatcher) at once. Their colors, velocities, radii and locations
+	 * are drawn in bulk, then the balls are made one after another and all added to the dispatcher
+	 * when its batch ends, in one structural update. Each ball gets its own strategies from the factories,
+	 * or the shared ones if they are flyweights. Every location is at least the largest radius away from
+	 * the edges of the canvas, so that the locations can be drawn before the radii are known.
+	 * @param count The number of balls to make
+	 * @param paintFac The factory of the paint strategy of every ball
+	 * @param updateFac The factory of the update strategy of every ball
+	 */
+	public void makeBalls(int count, IPaintStrategyFac paintFac, IUpdateStrategyFac updateFac) {
+		if (count <= 0) return;
+		Component canvas = viewCntrlAdpt.getCanvas();
+		Dimension size = canvasSize;
+		int[] argbs = new int[count], radii = new int[count];
+		double[] xs = new double[count], ys = new double[count], vxs = new double[count], vys = new double[count];
+		Point2D.Double center = new Point2D.Double(), vel = new Point2D.Double();
+		lock.lock();
+		try {
+			rand.randomColors(argbs, count);
+			rand.randomVels(rangeVel, vxs, vys, count);
+			rand.randomInts(minRadius, maxRadius, radii, count);
+			rand.randomLocs(new Rectangle(maxRadius, maxRadius, size.width-maxRadius, size.height-maxRadius), xs, ys, count);
+			dispatcher.beginBatch();
+			try {
+				for (int i = 0; i < count; i++) {
+					center.setLocation(xs[i], ys[i]);
+					vel.setLocation(vxs[i], vys[i]);
+					dispatcher.addObserver(new Ball(store, radii[i], argbs[i], center, vel, canvas,
+							rand.split(), updateFac.make(), paintFac.make()));
+				}
+			} finally {
+				dispatcher.endBatch();
+			}
+			framePending = true;
+		} finally {
+			lock.unlock();
+		}
 	}
 
 	/**
 	 * Clear all balls in this ball world (dispatcher)
 	 */
 	public void clearBalls() {
-		dispatcher.deleteObservers();
+		lock.lock();
+		try {
+			dispatcher.deleteObservers();
+			framePending = true;
+		} finally {
+			lock.unlock();
+		}
 	}
 
 	/**
 	 * Used by adapter to view's repaint, paints balls in given graphics. 
+	 * Paints the latest frame published by the simulation, without waiting for a tick that is running.
+	 * Must only be called from one thread at a time, i.e. the GUI thread.
 	 * @param g The Graphics object from the view's paintComponent() call.
 	 */
 	public void paint(Graphics g) {
-		dispatcher.dispatch((context, disp) -> {
-			context.paint(g);
-		});		
+		// while the updates are stopped, no tick publishes the balls made or cleared since the last frame
+		if (framePending && lock.tryLock()) {
+			try {
+				publishFrame();
+			} finally {
+				lock.unlock();
+			}
+		}
+		frames.getReadBuffer().paint(g);
+	}
+
+	/**
+	 * Copy all the balls into a frame and publish it for painting
+	 */
+	private void publishFrame() {
+		framePending = false;
+		RenderFrame frame = frames.getWriteBuffer();
+		frame.clear();
+		dispatcher.dispatch((context, disp) -> frame.add(context));
+		frames.publish();
 	}
 
 	/**
 	 * Update all the balls in the system, passing the given input parameter.
+	 * All the balls move first, in one pass over the ball store, then the spatial index is rebuilt once (every so often after 
+	 * sorting the balls into spatial order) and the ball store takes a snapshot, 
+	 * then every ball runs its update strategy against that index and snapshot. 
+	 * The interactions the update strategies asked for then run one ball after another, in dispatch order.
+	 * Last, every pair of balls that may touch is visited once, and the pair 
+	 * strategy of one of the two balls, if any, interacts them with each other.
+	 * Pairs with a ball whose collisions are predicted go to the collision engine instead,
+	 * which then processes all their collisions in time order.
+	 * In a parallel tick, the updates and the pairs run strip by strip, see StripPartition. 
+	 * Pairs that span more than two strips and the collision engine still run on the calling thread.
+	 * The whole tick is one batch of the dispatcher, so the balls killed or added during the tick 
+	 * are deleted or added together once it is over.
+	 * Ticks run on the simulation thread, so a tick and the changes to the balls made from 
+	 * the GUI thread take turns on this model's lock. A tick only uses the size of the canvas cached in this model, 
+	 * never the canvas itself. At the end of the tick, a frame of the balls is published for painting.
 	 */
 	public void update() {
-		dispatcher.dispatch((context, disp) -> {
-			context.move();
-			context.bounce();
-			context.update(disp);
-		});		
+		lock.lock();
+		try {
+			dispatcher.beginBatch();
+			try {
+				tick();
+			} finally {
+				dispatcher.endBatch();
+			}
+			publishFrame();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Run the steps of one tick, see update()
+	 */
+	private void tick() {
+		Dimension size = canvasSize;
+		store.moveAndBounceAll(size.width, size.height);
+		if (++ticksSinceSort >= SORT_PERIOD) {
+			dispatcher.sortObservers(spatialOrder);
+			ticksSinceSort = 0;
+		}
+		dispatcher.reindex();
+		store.snapshot();
+		if (null == strips) {
+			dispatcher.dispatch((context, disp) -> {
+				context.setPairStrategy(IPairStrategy.NULL_STRATEGY);
+				context.update(disp);
+			});
+		} else {
+			strips.reset(size.width, 2 * CONTACT_RANGE);
+			dispatcher.dispatch((context, disp) -> strips.addBall(context));
+			strips.forEachBall(context -> {
+				context.setPairStrategy(IPairStrategy.NULL_STRATEGY);
+				context.update(dispatcher);
+			});
+		}
+		dispatcher.dispatch((context, disp) -> context.runPendingInteractions(disp));
+		contactIndex.forEachPair((obs1, obs2) -> {
+			Ball ball1 = (Ball) obs1, ball2 = (Ball) obs2;
+			if (CollisionEventEngine.PREDICTED == ball1.getPairStrategy() 
+					|| CollisionEventEngine.PREDICTED == ball2.getPairStrategy()) {
+				collisionEngine.addPair(ball1, ball2);
+			} else if (IPairStrategy.NULL_STRATEGY == ball1.getPairStrategy() 
+					&& IPairStrategy.NULL_STRATEGY == ball2.getPairStrategy()) {
+				// no pair strategy, nothing to do
+			} else if (null == strips || deterministic || !strips.addPair(ball1, ball2)) {
+				interactPair(ball1, ball2);
+			}
+		});
+		if (null != strips) {
+			strips.forEachPair(this::interactPair);
+		}
+		collisionEngine.run(dispatcher, size.width, size.height);
+	}
+
+	/**
+	 * Interact a pair of balls with the pair strategy of the first ball, or else of the second ball
+	 * @param ball1 One ball of the pair
+	 * @param ball2 The other ball of the pair
+	 */
+	private void interactPair(Ball ball1, Ball ball2) {
+		if (IPairStrategy.NULL_STRATEGY != ball1.getPairStrategy()) {
+			ball1.getPairStrategy().interact(ball1, ball2, dispatcher);
+		} else {
+			ball2.getPairStrategy().interact(ball2, ball1, dispatcher);
+		}
 	}
 
 	/**
@@ -212,16 +602,7 @@ public class BallModel {
 	 */
 	public IPaintStrategy loadPaintStrat(String className) {
 		try {
-			Object[] args = new Object[] {};
-			java.lang.reflect.Constructor<?> cs[] = Class.forName(className).getConstructors(); 
-			java.lang.reflect.Constructor<?> c = null; 
-			for(int i=0;i < cs.length; i++) {
-				if(args.length == (cs[i]).getParameterTypes().length) {
-					c = cs[i];
-					break;
-				}
-			}
-			return (IPaintStrategy) c.newInstance(args); 
+			return (IPaintStrategy) makeStrategy(className);
 		}
 		catch(Exception ex) {
 			System.err.println("Class "+className+" failed to load. \nException = \n"+ ex);
@@ -237,16 +618,7 @@ public class BallModel {
 	 */
 	public IUpdateStrategy loadUpdateStrat(String className) {
 		try {
-			Object[] args = new Object[] {};
-			java.lang.reflect.Constructor<?> cs[] = Class.forName(className).getConstructors();  // get all the constructors
-			java.lang.reflect.Constructor<?> c = null; 
-			for(int i=0;i < cs.length; i++) {  // find the first constructor with the right number of input parameters
-				if(args.length == (cs[i]).getParameterTypes().length) {
-					c = cs[i];
-					break;
-				}
-			}
-			return (IUpdateStrategy) c.newInstance(args);   // Call the constructor. Will throw a null ptr exception if no constructor with the right number of input parameters was found.
+			return (IUpdateStrategy) makeStrategy(className);
 		}
 		catch(Exception ex) {
 			System.err.println("Class "+className+" failed to load. \nException = \n"+ ex);
@@ -255,6 +627,40 @@ public class BallModel {
 		}
 	}
 
+	/**
+	 * Instantiate the given class with its no-parameter constructor. The class is only looked up the first time, 
+	 * after which its constructor is called through a Supplier bound to it, as fast as a plain new.
+	 * @param className A fully qualified className
+	 * @return A new instance of the class
+	 * @throws Exception if the class cannot be found or has no public no-parameter constructor
+	 */
+	private Object makeStrategy(String className) throws Exception {
+		Supplier<?> maker = strategyMakers.get(className);
+		if (null == maker) {
+			maker = bindConstructor(Class.forName(className));
+			strategyMakers.putIfAbsent(className, maker);
+		}
+		return maker.get();
+	}
+
+	/**
+	 * Bind a Supplier to the public no-parameter constructor of the given class
+	 * @param cls A class
+	 * @return A Supplier that calls the constructor
+	 * @throws Exception if the class has no public no-parameter constructor
+	 */
+	private static Supplier<?> bindConstructor(Class<?> cls) throws Exception {
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		MethodHandle constructor = lookup.findConstructor(cls, MethodType.methodType(void.class));
+		CallSite site = LambdaMetafactory.metafactory(lookup, "get", MethodType.methodType(Supplier.class), 
+				MethodType.methodType(Object.class), constructor, MethodType.methodType(cls));
+		try {
+			return (Supplier<?>) site.getTarget().invokeExact();
+		} catch (Throwable ex) {
+			throw new InstantiationException("Cannot bind the constructor of "+cls.getName()+": "+ex);
+		}
+	}
+
 	/**
 	 * Returns an IPaintStrategy that can instantiate the strategy specified by className. 
 	 * @param className  Shortened name of desired strategy
@@ -276,15 +682,23 @@ public class BallModel {
 
 	/**
 	 * Returns an IUpdateStrategyFac that can instantiate the strategy specified by className.
+	 * If the strategy is an IFlyweightStrategy, the factory makes it once and then hands out that same instance.
 	 * @param className  Shortened name of desired strategy
 	 * @return A factory to make that strategy
 	 */
 	public IUpdateStrategyFac makeUpdateStratFac(final String className) {
 		if (null == className) return errorUpdateStratFac;
 		return new IUpdateStrategyFac() {
+			/**
+			 * The instance shared by all the balls if the strategy is a flyweight, made on first use
+			 */
+			private IUpdateStrategy flyweight = null;
 			@Override
 			public IUpdateStrategy make() {
-				return loadUpdateStrat("model.update."+className+"Strategy");
+				if (null != flyweight) return flyweight;
+				IUpdateStrategy strategy = loadUpdateStrat("model.update."+className+"Strategy");
+				if (strategy instanceof IFlyweightStrategy) flyweight = strategy;
+				return strategy;
 			}
 			@Override
 			public String toString() {
@@ -303,11 +717,19 @@ public class BallModel {
 		if (null == stratFac1 || null == stratFac2) return errorUpdateStratFac;
 		return new IUpdateStrategyFac() {
 			/**
-			 * Instantiate a new MultiStrategy with the strategies from the given strategy factories
+			 * The instance shared by all the balls if it only holds flyweights, made on first use
+			 */
+			private MultiStrategy flyweight = null;
+			/**
+			 * Instantiate a new MultiStrategy with the strategies from the given strategy factories, 
+			 * or return the shared one if it only holds flyweights
 			 * @return A MultiStrategy instance
 			 */
 			public IUpdateStrategy make() {
-				return new MultiStrategy(stratFac1.make(), stratFac2.make());
+				if (null != flyweight) return flyweight;
+				MultiStrategy strategy = new MultiStrategy(stratFac1.make(), stratFac2.make());
+				if (strategy.isFlyweight()) flyweight = strategy;
+				return strategy;
 			}
 
 			/**
@@ -328,11 +750,23 @@ public class BallModel {
 	}
 
 	/**
-	 * Set switcher-balls's strategy to a new one
-	 * @param strategy A new strategy
+	 * Set switcher-balls's strategy to a new one, and move every ball whose update strategy is 
+	 * the switcher over to it, between two ticks
+	 * @param factory The factory of the new strategy, which makes each switcher ball its own instance
 	 */
-	public void switchUpdateStrat(IUpdateStrategy strategy) {
-		switcherStrategy.setStrategy(strategy);
+	public void switchUpdateStrat(IUpdateStrategyFac factory) {
+		lock.lock();
+		try {
+			switcherStrategy.setStrategy(factory);
+			dispatcher.dispatch((context, disp) -> {
+				if (switcherStrategy == context.getUpdateStrategy()) {
+					switcherStrategy.switchBall(context);
+				}
+			});
+			framePending = true;
+		} finally {
+			lock.unlock();
+		}
 	}
 
 }
@@ -0,0 +1,302 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * An IBallStore that keeps the state of the balls in parallel primitive arrays on the heap,
+ * instead of in separate Point and Color objects per ball.
+ * @author kq2
+ *
+ */
+public class BallStore implements IBallStore {
+
+	/**
+	 * The number of slots a new store starts with
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+	/**
+	 * The horizontal center location of each ball
+	 */
+	private double[] x = new double[INITIAL_CAPACITY];
+	/**
+	 * The vertical center location of each ball
+	 */
+	private double[] y = new double[INITIAL_CAPACITY];
+	/**
+	 * The horizontal velocity of each ball
+	 */
+	private double[] vx = new double[INITIAL_CAPACITY];
+	/**
+	 * The vertical velocity of each ball
+	 */
+	private double[] vy = new double[INITIAL_CAPACITY];
+	/**
+	 * The horizontal center location of each ball at the last snapshot
+	 */
+	private double[] prevX = new double[INITIAL_CAPACITY];
+	/**
+	 * The vertical center location of each ball at the last snapshot
+	 */
+	private double[] prevY = new double[INITIAL_CAPACITY];
+	/**
+	 * The horizontal velocity of each ball at the last snapshot
+	 */
+	private double[] prevVx = new double[INITIAL_CAPACITY];
+	/**
+	 * The vertical velocity of each ball at the last snapshot
+	 */
+	private double[] prevVy = new double[INITIAL_CAPACITY];
+	/**
+	 * The radius of each ball at the last snapshot
+	 */
+	private int[] prevRadius = new int[INITIAL_CAPACITY];
+	/**
+	 * The radius of each ball
+	 */
+	private int[] radius = new int[INITIAL_CAPACITY];
+	/**
+	 * The packed ARGB color of each ball
+	 */
+	private int[] argb = new int[INITIAL_CAPACITY];
+	/**
+	 * Whether each slot holds a ball that has not been removed
+	 */
+	private boolean[] live = new boolean[INITIAL_CAPACITY];
+	/**
+	 * The generation of each slot, i.e. how many balls were removed from it
+	 */
+	private int[] generation = new int[INITIAL_CAPACITY];
+	/**
+	 * The number of slots ever used. Slots at and above it are all free.
+	 */
+	private int size = 0;
+	/**
+	 * The removed slots below size, ready to be reused
+	 */
+	private int[] freeSlots = new int[INITIAL_CAPACITY];
+	/**
+	 * The number of removed slots ready to be reused
+	 */
+	private int freeCount = 0;
+	/**
+	 * The sum of the largest distance any ball moved between two snapshots, over all snapshots
+	 */
+	private double drift = 0.0;
+	/**
+	 * Goes up whenever a ball is added or removed
+	 */
+	private long version = 0;
+
+	@Override
+	public int add(double x, double y, double vx, double vy, int radius, int argb) {
+		int id;
+		if (freeCount > 0) {
+			id = freeSlots[--freeCount];
+		} else {
+			ensureCapacity(size + 1);
+			id = size++;
+		}
+		this.x[id] = x;
+		this.y[id] = y;
+		this.vx[id] = vx;
+		this.vy[id] = vy;
+		this.radius[id] = radius;
+		this.argb[id] = argb;
+		prevX[id] = x;
+		prevY[id] = y;
+		prevVx[id] = vx;
+		prevVy[id] = vy;
+		prevRadius[id] = radius;
+		live[id] = true;
+		version++;
+		return id;
+	}
+
+	@Override
+	public void remove(int id) {
+		if (!live[id]) return;
+		live[id] = false;
+		generation[id]++;
+		if (freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, 2 * freeCount);
+		freeSlots[freeCount++] = id;
+		version++;
+	}
+
+	@Override
+	public void clear() {
+		for (int id = 0; id < size; id++) {
+			if (live[id]) generation[id]++;
+		}
+		Arrays.fill(live, 0, size, false);
+		size = 0;
+		freeCount = 0;
+		version++;
+	}
+
+	@Override
+	public int getGeneration(int id) {
+		return generation[id];
+	}
+
+	@Override
+	public void moveAndBounceAll(int width, int height) {
+		for (int id = 0; id < size; id++) {
+			if (!live[id]) continue;
+			x[id] += vx[id];
+			y[id] += vy[id];
+			bounce(id, width, height);
+		}
+	}
+
+	@Override
+	public void move(int id) {
+		x[id] += vx[id];
+		y[id] += vy[id];
+	}
+
+	@Override
+	public void bounce(int id, int width, int height) {
+		int r = radius[id];
+		// bounce horizontally
+		if (x[id] - r < 0) {
+			x[id] = 2 * r - x[id];
+			vx[id] = -vx[id];
+		} else if (x[id] + r > width) {
+			x[id] = 2 * (width - r) - x[id];
+			vx[id] = -vx[id];
+		}
+		// bounce vertically
+		if (y[id] - r < 0) {
+			y[id] = 2 * r - y[id];
+			vy[id] = -vy[id];
+		} else if (y[id] + r > height) {
+			y[id] = 2 * (height - r) - y[id];
+			vy[id] = -vy[id];
+		}
+	}
+
+	@Override
+	public void snapshot() {
+		double maxStepSq = 0.0;
+		for (int id = 0; id < size; id++) {
+			if (!live[id]) continue;
+			double dx = x[id] - prevX[id], dy = y[id] - prevY[id];
+			maxStepSq = Math.max(maxStepSq, dx * dx + dy * dy);
+		}
+		drift += Math.sqrt(maxStepSq);
+		System.arraycopy(x, 0, prevX, 0, size);
+		System.arraycopy(y, 0, prevY, 0, size);
+		System.arraycopy(vx, 0, prevVx, 0, size);
+		System.arraycopy(vy, 0, prevVy, 0, size);
+		System.arraycopy(radius, 0, prevRadius, 0, size);
+	}
+
+	@Override
+	public double getDrift() {
+		return drift;
+	}
+
+	@Override
+	public long getVersion() {
+		return version;
+	}
+
+	@Override
+	public double getPrevX(int id) {
+		return prevX[id];
+	}
+
+	@Override
+	public double getPrevY(int id) {
+		return prevY[id];
+	}
+
+	@Override
+	public double getPrevVelX(int id) {
+		return prevVx[id];
+	}
+
+	@Override
+	public double getPrevVelY(int id) {
+		return prevVy[id];
+	}
+
+	@Override
+	public int getPrevRadius(int id) {
+		return prevRadius[id];
+	}
+
+	@Override
+	public double getX(int id) {
+		return x[id];
+	}
+
+	@Override
+	public double getY(int id) {
+		return y[id];
+	}
+
+	@Override
+	public void setLoc(int id, double x, double y) {
+		this.x[id] = x;
+		this.y[id] = y;
+	}
+
+	@Override
+	public double getVelX(int id) {
+		return vx[id];
+	}
+
+	@Override
+	public double getVelY(int id) {
+		return vy[id];
+	}
+
+	@Override
+	public void setVel(int id, double vx, double vy) {
+		this.vx[id] = vx;
+		this.vy[id] = vy;
+	}
+
+	@Override
+	public int getRadius(int id) {
+		return radius[id];
+	}
+
+	@Override
+	public void setRadius(int id, int radius) {
+		this.radius[id] = radius;
+	}
+
+	@Override
+	public int getColor(int id) {
+		return argb[id];
+	}
+
+	@Override
+	public void setColor(int id, int argb) {
+		this.argb[id] = argb;
+	}
+
+	/**
+	 * Grow the arrays so they can hold at least the given number of slots
+	 * @param capacity The number of slots to hold
+	 */
+	private void ensureCapacity(int capacity) {
+		if (x.length >= capacity) return;
+		int newLength = Math.max(capacity, 2 * x.length);
+		x = Arrays.copyOf(x, newLength);
+		y = Arrays.copyOf(y, newLength);
+		vx = Arrays.copyOf(vx, newLength);
+		vy = Arrays.copyOf(vy, newLength);
+		prevX = Arrays.copyOf(prevX, newLength);
+		prevY = Arrays.copyOf(prevY, newLength);
+		prevVx = Arrays.copyOf(prevVx, newLength);
+		prevVy = Arrays.copyOf(prevVy, newLength);
+		prevRadius = Arrays.copyOf(prevRadius, newLength);
+		radius = Arrays.copyOf(radius, newLength);
+		argb = Arrays.copyOf(argb, newLength);
+		live = Arrays.copyOf(live, newLength);
+		generation = Arrays.copyOf(generation, newLength);
+	}
+}
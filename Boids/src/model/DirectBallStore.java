@@ -0,0 +1,357 @@
+package model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * An IBallStore that keeps the state of the balls off the heap, in a direct ByteBuffer of
+ * fixed-size records, so that even millions of balls add nothing for the garbage collector to trace.
+ * The buffer only grows when it runs out of slots, by copying all the records into a buffer
+ * twice as big. A direct buffer is indexed by int, so one store holds at most MAX_CAPACITY, 
+ * i.e. about 44.7 million, balls.
+ *
+ * Record layout, in native byte order:
+ * x, y, vx, vy as doubles at bytes 0, 8, 16 and 24, then radius, color, flags and generation 
+ * as ints at bytes 32, 36, 40 and 44, 48 bytes in all. The previous state is a second buffer with the
+ * same layout, refreshed by one bulk copy per snapshot.
+ * @author kq2
+ *
+ */
+public class DirectBallStore implements IBallStore {
+
+	/**
+	 * The byte offset of the horizontal center location in a record
+	 */
+	private static final int X = 0;
+	/**
+	 * The byte offset of the vertical center location in a record
+	 */
+	private static final int Y = 8;
+	/**
+	 * The byte offset of the horizontal velocity in a record
+	 */
+	private static final int VX = 16;
+	/**
+	 * The byte offset of the vertical velocity in a record
+	 */
+	private static final int VY = 24;
+	/**
+	 * The byte offset of the radius in a record
+	 */
+	private static final int RADIUS = 32;
+	/**
+	 * The byte offset of the packed ARGB color in a record
+	 */
+	private static final int ARGB = 36;
+	/**
+	 * The byte offset of the flags in a record
+	 */
+	private static final int FLAGS = 40;
+	/**
+	 * The byte offset of the generation of the slot in a record
+	 */
+	private static final int GENERATION = 44;
+	/**
+	 * The size of a record in bytes, a multiple of 8 so the doubles stay aligned
+	 */
+	private static final int RECORD_SIZE = 48;
+	/**
+	 * The largest number of records whose bytes can still be indexed by an int
+	 */
+	public static final int MAX_CAPACITY = Integer.MAX_VALUE / RECORD_SIZE;
+	/**
+	 * The flag bit of a slot that holds a ball that has not been removed
+	 */
+	private static final int LIVE = 1;
+
+	/**
+	 * The records, one per slot
+	 */
+	private ByteBuffer records;
+	/**
+	 * The records as they were at the last snapshot
+	 */
+	private ByteBuffer prevRecords;
+	/**
+	 * The number of records the buffer can hold
+	 */
+	private int capacity;
+	/**
+	 * The number of slots ever used. Slots at and above it are all free.
+	 */
+	private int size = 0;
+	/**
+	 * The removed slots below size, ready to be reused
+	 */
+	private int[] freeSlots = new int[64];
+	/**
+	 * The number of removed slots ready to be reused
+	 */
+	private int freeCount = 0;
+	/**
+	 * The sum of the largest distance any ball moved between two snapshots, over all snapshots
+	 */
+	private double drift = 0.0;
+	/**
+	 * Goes up whenever a ball is added or removed
+	 */
+	private long version = 0;
+
+	/**
+	 * Create a store with room for the given number of balls before it has to grow
+	 * @param initialCapacity The number of slots to start with, at most MAX_CAPACITY
+	 */
+	public DirectBallStore(int initialCapacity) {
+		if (initialCapacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("A DirectBallStore holds at most "+MAX_CAPACITY+" balls, not "+initialCapacity);
+		}
+		capacity = Math.max(1, initialCapacity);
+		records = allocate(capacity);
+		prevRecords = allocate(capacity);
+	}
+
+	@Override
+	public int add(double x, double y, double vx, double vy, int radius, int argb) {
+		int id;
+		if (freeCount > 0) {
+			id = freeSlots[--freeCount];
+		} else {
+			ensureCapacity(size + 1);
+			id = size++;
+		}
+		int base = id * RECORD_SIZE;
+		records.putDouble(base + X, x);
+		records.putDouble(base + Y, y);
+		records.putDouble(base + VX, vx);
+		records.putDouble(base + VY, vy);
+		records.putInt(base + RADIUS, radius);
+		records.putInt(base + ARGB, argb);
+		records.putInt(base + FLAGS, LIVE);
+		prevRecords.putDouble(base + X, x);
+		prevRecords.putDouble(base + Y, y);
+		prevRecords.putDouble(base + VX, vx);
+		prevRecords.putDouble(base + VY, vy);
+		prevRecords.putInt(base + RADIUS, radius);
+		version++;
+		return id;
+	}
+
+	@Override
+	public void remove(int id) {
+		int base = id * RECORD_SIZE;
+		int flags = records.getInt(base + FLAGS);
+		if (0 == (flags & LIVE)) return;
+		records.putInt(base + FLAGS, flags & ~LIVE);
+		records.putInt(base + GENERATION, records.getInt(base + GENERATION) + 1);
+		if (freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, 2 * freeCount);
+		freeSlots[freeCount++] = id;
+		version++;
+	}
+
+	@Override
+	public void clear() {
+		for (int id = 0; id < size; id++) {
+			int base = id * RECORD_SIZE;
+			if (0 != (records.getInt(base + FLAGS) & LIVE)) {
+				records.putInt(base + GENERATION, records.getInt(base + GENERATION) + 1);
+			}
+			records.putInt(base + FLAGS, 0);
+		}
+		size = 0;
+		freeCount = 0;
+		version++;
+	}
+
+	@Override
+	public int getGeneration(int id) {
+		return records.getInt(id * RECORD_SIZE + GENERATION);
+	}
+
+	@Override
+	public void moveAndBounceAll(int width, int height) {
+		for (int id = 0; id < size; id++) {
+			int base = id * RECORD_SIZE;
+			if (0 == (records.getInt(base + FLAGS) & LIVE)) continue;
+			records.putDouble(base + X, records.getDouble(base + X) + records.getDouble(base + VX));
+			records.putDouble(base + Y, records.getDouble(base + Y) + records.getDouble(base + VY));
+			bounce(id, width, height);
+		}
+	}
+
+	@Override
+	public void move(int id) {
+		int base = id * RECORD_SIZE;
+		records.putDouble(base + X, records.getDouble(base + X) + records.getDouble(base + VX));
+		records.putDouble(base + Y, records.getDouble(base + Y) + records.getDouble(base + VY));
+	}
+
+	@Override
+	public void bounce(int id, int width, int height) {
+		int base = id * RECORD_SIZE;
+		int r = records.getInt(base + RADIUS);
+		bounce1D(base + X, base + VX, r, width);
+		bounce1D(base + Y, base + VY, r, height);
+	}
+
+	/**
+	 * Bounce one ball in one dimension
+	 * @param locOffset The byte offset of the ball's location in that dimension
+	 * @param velOffset The byte offset of the ball's velocity in that dimension
+	 * @param r The radius of the ball
+	 * @param maxBound The maximum location in canvas
+	 */
+	private void bounce1D(int locOffset, int velOffset, int r, int maxBound) {
+		double loc = records.getDouble(locOffset);
+		if (loc - r < 0) {
+			records.putDouble(locOffset, 2 * r - loc);
+			records.putDouble(velOffset, -records.getDouble(velOffset));
+		} else if (loc + r > maxBound) {
+			records.putDouble(locOffset, 2 * (maxBound - r) - loc);
+			records.putDouble(velOffset, -records.getDouble(velOffset));
+		}
+	}
+
+	@Override
+	public void snapshot() {
+		double maxStepSq = 0.0;
+		for (int id = 0; id < size; id++) {
+			int base = id * RECORD_SIZE;
+			if (0 == (records.getInt(base + FLAGS) & LIVE)) continue;
+			double dx = records.getDouble(base + X) - prevRecords.getDouble(base + X);
+			double dy = records.getDouble(base + Y) - prevRecords.getDouble(base + Y);
+			maxStepSq = Math.max(maxStepSq, dx * dx + dy * dy);
+		}
+		drift += Math.sqrt(maxStepSq);
+		ByteBuffer used = records.duplicate();
+		used.clear().limit(size * RECORD_SIZE);
+		prevRecords.clear();
+		prevRecords.put(used).clear();
+	}
+
+	@Override
+	public double getDrift() {
+		return drift;
+	}
+
+	@Override
+	public long getVersion() {
+		return version;
+	}
+
+	@Override
+	public double getPrevX(int id) {
+		return prevRecords.getDouble(id * RECORD_SIZE + X);
+	}
+
+	@Override
+	public double getPrevY(int id) {
+		return prevRecords.getDouble(id * RECORD_SIZE + Y);
+	}
+
+	@Override
+	public double getPrevVelX(int id) {
+		return prevRecords.getDouble(id * RECORD_SIZE + VX);
+	}
+
+	@Override
+	public double getPrevVelY(int id) {
+		return prevRecords.getDouble(id * RECORD_SIZE + VY);
+	}
+
+	@Override
+	public int getPrevRadius(int id) {
+		return prevRecords.getInt(id * RECORD_SIZE + RADIUS);
+	}
+
+	@Override
+	public double getX(int id) {
+		return records.getDouble(id * RECORD_SIZE + X);
+	}
+
+	@Override
+	public double getY(int id) {
+		return records.getDouble(id * RECORD_SIZE + Y);
+	}
+
+	@Override
+	public void setLoc(int id, double x, double y) {
+		records.putDouble(id * RECORD_SIZE + X, x);
+		records.putDouble(id * RECORD_SIZE + Y, y);
+	}
+
+	@Override
+	public double getVelX(int id) {
+		return records.getDouble(id * RECORD_SIZE + VX);
+	}
+
+	@Override
+	public double getVelY(int id) {
+		return records.getDouble(id * RECORD_SIZE + VY);
+	}
+
+	@Override
+	public void setVel(int id, double vx, double vy) {
+		records.putDouble(id * RECORD_SIZE + VX, vx);
+		records.putDouble(id * RECORD_SIZE + VY, vy);
+	}
+
+	@Override
+	public int getRadius(int id) {
+		return records.getInt(id * RECORD_SIZE + RADIUS);
+	}
+
+	@Override
+	public void setRadius(int id, int radius) {
+		records.putInt(id * RECORD_SIZE + RADIUS, radius);
+	}
+
+	@Override
+	public int getColor(int id) {
+		return records.getInt(id * RECORD_SIZE + ARGB);
+	}
+
+	@Override
+	public void setColor(int id, int argb) {
+		records.putInt(id * RECORD_SIZE + ARGB, argb);
+	}
+
+	/**
+	 * Grow the buffer so it can hold at least the given number of records
+	 * @param minCapacity The number of records to hold
+	 * @throws IllegalStateException if more than MAX_CAPACITY records are asked for
+	 */
+	private void ensureCapacity(int minCapacity) {
+		if (capacity >= minCapacity) return;
+		if (minCapacity > MAX_CAPACITY) {
+			throw new IllegalStateException("A DirectBallStore holds at most "+MAX_CAPACITY+" balls");
+		}
+		int newCapacity = (int) Math.min(MAX_CAPACITY, Math.max(minCapacity, 2L * capacity));
+		records = copy(records, newCapacity);
+		prevRecords = copy(prevRecords, newCapacity);
+		capacity = newCapacity;
+	}
+
+	/**
+	 * Copy the records of the used slots into a new, bigger buffer
+	 * @param from The buffer to copy from
+	 * @param newCapacity The number of records the new buffer holds
+	 * @return The new buffer
+	 */
+	private ByteBuffer copy(ByteBuffer from, int newCapacity) {
+		ByteBuffer to = allocate(newCapacity);
+		ByteBuffer used = from.duplicate();
+		used.clear().limit(size * RECORD_SIZE);
+		to.put(used).clear();
+		return to;
+	}
+
+	/**
+	 * Allocate a direct buffer for the given number of records
+	 * @param capacity The number of records, at most MAX_CAPACITY
+	 * @return A zeroed direct buffer in native byte order
+	 */
+	private static ByteBuffer allocate(int capacity) {
+		return ByteBuffer.allocateDirect(capacity * RECORD_SIZE).order(ByteOrder.nativeOrder());
+	}
+}
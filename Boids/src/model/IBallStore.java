@@ -0,0 +1,201 @@
+package model;
+
+/**
+ * Holds the state of all the balls, i.e. their locations, velocities, radii and colors, 
+ * one slot per ball. A Ball is a thin view over its slot, so per-ball code still goes 
+ * through the Ball, while whole-world passes like moving and bouncing run as tight loops 
+ * inside the store.
+ *
+ * The store is double-buffered: besides the current state, which every ball writes its own 
+ * changes to, it keeps the previous state, frozen at the last snapshot(). Code that looks at 
+ * other balls during a pass reads the previous state, so the result does not depend on the 
+ * order the balls are updated in, and the balls can be updated in parallel.
+ *
+ * The slot of a removed ball keeps its data until a new ball reuses it. Every slot has a generation 
+ * that goes up when its ball is removed, so code that holds on to a ball can check that it is still there.
+ * @author kq2
+ *
+ */
+public interface IBallStore {
+
+	/**
+	 * Put a new ball into a free slot. Until the next snapshot, its previous state is its current state.
+	 * @param x The horizontal center location
+	 * @param y The vertical center location
+	 * @param vx The horizontal velocity
+	 * @param vy The vertical velocity
+	 * @param radius The radius
+	 * @param argb The packed ARGB color
+	 * @return The id of the slot the ball is in
+	 */
+	public int add(double x, double y, double vx, double vy, int radius, int argb);
+
+	/**
+	 * Free the slot of a removed ball, which moves the slot on to its next generation. 
+	 * Does nothing if the slot is already free.
+	 * @param id The id of the slot
+	 */
+	public void remove(int id);
+
+	/**
+	 * Free all the slots
+	 */
+	public void clear();
+
+	/**
+	 * Get the generation of a slot, which goes up every time the ball in it is removed, 
+	 * so that a ball can tell that its slot was freed, and maybe reused by another ball
+	 * @param id The id of the slot
+	 * @return The generation of the slot
+	 */
+	public int getGeneration(int id);
+
+	/**
+	 * Move every ball by its velocity, then bounce it against the borders of a canvas of the given size
+	 * @param width The width of the canvas
+	 * @param height The height of the canvas
+	 */
+	public void moveAndBounceAll(int width, int height);
+
+	/**
+	 * Move one ball by its velocity
+	 * @param id The id of the ball's slot
+	 */
+	public void move(int id);
+
+	/**
+	 * Bounce one ball against the borders of a canvas of the given size, by reflecting its
+	 * location back inside the canvas and reversing its velocity in that dimension
+	 * @param id The id of the ball's slot
+	 * @param width The width of the canvas
+	 * @param height The height of the canvas
+	 */
+	public void bounce(int id, int width, int height);
+
+	/**
+	 * Freeze the current state of all the balls as the previous state, at a tick boundary.
+	 * Also adds the largest distance any ball moved since the last snapshot to the drift.
+	 */
+	public void snapshot();
+
+	/**
+	 * Get the drift of the store, i.e. the sum, over all the snapshots so far, of the largest distance 
+	 * any ball moved between two snapshots. No ball moved further between two snapshots than the 
+	 * difference of the drift at those snapshots.
+	 * @return The drift
+	 */
+	public double getDrift();
+
+	/**
+	 * Get the version of the store, which goes up whenever a ball is added or removed, or all are cleared
+	 * @return The version
+	 */
+	public long getVersion();
+
+	/**
+	 * Get the horizontal center location of a ball at the last snapshot
+	 * @param id The id of the ball's slot
+	 * @return The previous horizontal center location
+	 */
+	public double getPrevX(int id);
+
+	/**
+	 * Get the vertical center location of a ball at the last snapshot
+	 * @param id The id of the ball's slot
+	 * @return The previous vertical center location
+	 */
+	public double getPrevY(int id);
+
+	/**
+	 * Get the horizontal velocity of a ball at the last snapshot
+	 * @param id The id of the ball's slot
+	 * @return The previous horizontal velocity
+	 */
+	public double getPrevVelX(int id);
+
+	/**
+	 * Get the vertical velocity of a ball at the last snapshot
+	 * @param id The id of the ball's slot
+	 * @return The previous vertical velocity
+	 */
+	public double getPrevVelY(int id);
+
+	/**
+	 * Get the radius of a ball at the last snapshot
+	 * @param id The id of the ball's slot
+	 * @return The previous radius
+	 */
+	public int getPrevRadius(int id);
+
+	/**
+	 * Get the horizontal center location of a ball
+	 * @param id The id of the ball's slot
+	 * @return The horizontal center location
+	 */
+	public double getX(int id);
+
+	/**
+	 * Get the vertical center location of a ball
+	 * @param id The id of the ball's slot
+	 * @return The vertical center location
+	 */
+	public double getY(int id);
+
+	/**
+	 * Set the center location of a ball
+	 * @param id The id of the ball's slot
+	 * @param x The horizontal center location
+	 * @param y The vertical center location
+	 */
+	public void setLoc(int id, double x, double y);
+
+	/**
+	 * Get the horizontal velocity of a ball
+	 * @param id The id of the ball's slot
+	 * @return The horizontal velocity
+	 */
+	public double getVelX(int id);
+
+	/**
+	 * Get the vertical velocity of a ball
+	 * @param id The id of the ball's slot
+	 * @return The vertical velocity
+	 */
+	public double getVelY(int id);
+
+	/**
+	 * Set the velocity of a ball
+	 * @param id The id of the ball's slot
+	 * @param vx The horizontal velocity
+	 * @param vy The vertical velocity
+	 */
+	public void setVel(int id, double vx, double vy);
+
+	/**
+	 * Get the radius of a ball
+	 * @param id The id of the ball's slot
+	 * @return The radius
+	 */
+	public int getRadius(int id);
+
+	/**
+	 * Set the radius of a ball
+	 * @param id The id of the ball's slot
+	 * @param radius The radius
+	 */
+	public void setRadius(int id, int radius);
+
+	/**
+	 * Get the color of a ball
+	 * @param id The id of the ball's slot
+	 * @return The packed ARGB color
+	 */
+	public int getColor(int id);
+
+	/**
+	 * Set the color of a ball
+	 * @param id The id of the ball's slot
+	 * @param argb The packed ARGB color
+	 */
+	public void setColor(int id, int argb);
+}
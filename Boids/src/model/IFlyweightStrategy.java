@@ -0,0 +1,13 @@
+package model;
+
+/**
+ * An update strategy that keeps nothing of its own for any one ball, or keeps it in side tables keyed
+ * by the ball's id, so a single instance can serve all the balls of a world. The world's strategy
+ * factories then hand out one shared instance instead of making one per ball.
+ * Its init() must still be called for every ball that uses it.
+ *
+ * @author kq2
+ *
+ */
+public interface IFlyweightStrategy extends IUpdateStrategy {
+}
@@ -0,0 +1,45 @@
+package model;
+
+import util.IDispatcher;
+
+/**
+ * An update strategy that looks at the other balls around its ball. Instead of searching the
+ * dispatcher itself, it says how far it looks and takes the balls found one at a time, so that
+ * a composite strategy can find the balls for all of its parts in one search, see NeighborSearch.
+ *
+ * @author kq2
+ *
+ */
+public interface INeighborStrategy extends IUpdateStrategy {
+
+	/**
+	 * Get how far from the center of the ball this strategy looks in this update
+	 * @param ball The ball being updated
+	 * @return The search radius, or 0 if the strategy does not need to look around in this update
+	 */
+	public double getQueryRadius(Ball ball);
+
+	/**
+	 * Start a search around the ball. Only called if getQueryRadius() was positive.
+	 * @param ball The ball being updated
+	 */
+	public void beginNeighbors(Ball ball);
+
+	/**
+	 * Take another ball found by the search. The search may be bigger than this strategy's own
+	 * radius, so the strategy checks how far the other ball really is. It only reads the state the other 
+	 * ball had at the last snapshot, e.g. getPrevX() and getPrevRadius(), and interacts with it through
+	 * interactLater(), since other workers may be updating the other ball at the same time.
+	 * @param ball The ball being updated
+	 * @param other Another ball near the ball
+	 * @param disp The dispatcher that is to be used if desired
+	 */
+	public void visitNeighbor(Ball ball, Ball other, IDispatcher<IBallCmd> disp);
+
+	/**
+	 * Finish the update, after the search, or without one if getQueryRadius() was 0
+	 * @param ball The ball being updated
+	 * @param disp The dispatcher that is to be used if desired
+	 */
+	public void endNeighbors(Ball ball, IDispatcher<IBallCmd> disp);
+}
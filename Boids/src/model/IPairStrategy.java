@@ -0,0 +1,27 @@
+package model;
+
+import util.IDispatcher;
+
+/**
+ * Strategy that defines a symmetric interaction between two balls, e.g. a collision, where
+ * both balls are processed together. The model runs it once for every pair of balls that
+ * may touch, instead of once from each ball's side.
+ *
+ * @author kq2
+ *
+ */
+public interface IPairStrategy {
+
+	/**
+	 * Performs the interaction between the two balls, updating both of them.
+	 * @param context  The ball whose strategy this is.
+	 * @param target  The other ball of the pair.
+	 * @param disp  The Dispatcher that is to be used if desired.
+	 */
+	public void interact(Ball context, Ball target, IDispatcher<IBallCmd> disp);
+
+	/**
+	 * Null strategy with no-op behavior.
+	 */
+	public static final IPairStrategy NULL_STRATEGY = (context, target, disp)->{};
+}
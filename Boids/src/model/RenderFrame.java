@@ -0,0 +1,67 @@
+package model;
+
+import java.awt.Graphics;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A copy of what is needed to paint all the balls at the end of one tick: the location, velocity,
+ * radius and color of every ball, kept in a ball store of its own, and the paint strategy of every ball.
+ * The frame is painted through read-only views of its store, so the paint strategies see the frame
+ * and never the balls the simulation is updating.
+ *
+ * Frames are reused, so filling one again allocates nothing once it is big enough.
+ *
+ * @author kq2
+ *
+ */
+public class RenderFrame {
+
+	/**
+	 * The state of the balls in the frame, in slots 0 to size-1
+	 */
+	private final BallStore state = new BallStore();
+	/**
+	 * The read-only views of the slots of the state, one per slot ever used
+	 */
+	private final ArrayList<Ball> views = new ArrayList<Ball>();
+	/**
+	 * The paint strategy of each ball in the frame
+	 */
+	private IPaintStrategy[] painters = new IPaintStrategy[16];
+	/**
+	 * The number of balls in the frame
+	 */
+	private int size = 0;
+
+	/**
+	 * Remove all the balls from the frame
+	 */
+	public void clear() {
+		state.clear();
+		Arrays.fill(painters, 0, size, null);
+		size = 0;
+	}
+
+	/**
+	 * Copy a ball into the frame
+	 * @param ball The ball
+	 */
+	public void add(Ball ball) {
+		// a cleared store hands out its slots in order, so the id is the index in the frame
+		int id = state.add(ball.getX(), ball.getY(), ball.getVelX(), ball.getVelY(), ball.getRadius(), ball.getArgb());
+		if (id == views.size()) views.add(new Ball(state, id));
+		if (size == painters.length) painters = Arrays.copyOf(painters, 2 * size);
+		painters[size++] = ball.getPaintStrategy();
+	}
+
+	/**
+	 * Paint all the balls in the frame
+	 * @param g The graphics to paint on
+	 */
+	public void paint(Graphics g) {
+		for (int i = 0; i < size; i++) {
+			painters[i].paint(g, views.get(i));
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Splits the canvas into vertical strips and runs per-ball and per-pair work strip by strip
+ * on a pool of workers. Every tick, each ball is put in the strip that holds its center,
+ * which also hands the balls that crossed a strip border over to their new strip.
+ *
+ * A worker only writes to the balls of its own strip, and reads the balls around the strip,
+ * i.e. its halo, through the read-only spatial index and ball store snapshot of the tick.
+ * A pair of balls may span two neighboring strips, so the pairs are run in two phases: first
+ * the pairs owned by the even strips, then those owned by the odd strips. Two strips that run
+ * at the same time are then never next to each other, so no ball is written by two workers.
+ *
+ * @author kq2
+ *
+ */
+public class StripPartition {
+
+	/**
+	 * The workers that run the strips
+	 */
+	private final ForkJoinPool pool;
+	/**
+	 * The number of strips in use this tick
+	 */
+	private int stripCount = 1;
+	/**
+	 * The width of a strip this tick
+	 */
+	private double stripWidth = Double.MAX_VALUE;
+	/**
+	 * The balls in each strip
+	 */
+	private final ArrayList<ArrayList<Ball>> balls = new ArrayList<ArrayList<Ball>>();
+	/**
+	 * The first ball of each pair owned by each strip
+	 */
+	private final ArrayList<ArrayList<Ball>> pairFirsts = new ArrayList<ArrayList<Ball>>();
+	/**
+	 * The second ball of each pair owned by each strip
+	 */
+	private final ArrayList<ArrayList<Ball>> pairSeconds = new ArrayList<ArrayList<Ball>>();
+	/**
+	 * The tasks of the current run, one per strip
+	 */
+	private final ArrayList<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>();
+
+	/**
+	 * Create a partition that runs its strips on the given pool
+	 * @param pool The workers that run the strips
+	 */
+	public StripPartition(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Forget all the balls and pairs, and lay out the strips for a new tick. The strips are
+	 * never narrower than the given width, so that nearly every pair spans at most two neighboring strips.
+	 * @param width The width of the canvas
+	 * @param minStripWidth The usual largest horizontal distance between the centers of two balls of a pair
+	 */
+	public void reset(double width, double minStripWidth) {
+		// a few strips per worker, so a crowded strip does not hold up the whole tick
+		int wanted = 4 * pool.getParallelism();
+		stripCount = (int) Math.max(1, Math.min(wanted, Math.floor(width / minStripWidth)));
+		stripWidth = width / stripCount;
+		while (balls.size() < stripCount) {
+			balls.add(new ArrayList<Ball>());
+			pairFirsts.add(new ArrayList<Ball>());
+			pairSeconds.add(new ArrayList<Ball>());
+		}
+		for (int s = 0; s < stripCount; s++) {
+			balls.get(s).clear();
+			pairFirsts.get(s).clear();
+			pairSeconds.get(s).clear();
+		}
+	}
+
+	/**
+	 * Put a ball in the strip that holds its center at the last snapshot
+	 * @param ball The ball
+	 */
+	public void addBall(Ball ball) {
+		balls.get(stripOf(ball.getPrevX())).add(ball);
+	}
+
+	/**
+	 * Give a pair of balls to the strip of its left ball
+	 * @param ball1 One ball of the pair
+	 * @param ball2 The other ball of the pair
+	 * @return false, and the pair is not added, if the balls are further apart than two neighboring strips
+	 */
+	public boolean addPair(Ball ball1, Ball ball2) {
+		int s1 = stripOf(ball1.getPrevX()), s2 = stripOf(ball2.getPrevX());
+		if (Math.abs(s1 - s2) > 1) return false;
+		int owner = Math.min(s1, s2);
+		pairFirsts.get(owner).add(ball1);
+		pairSeconds.get(owner).add(ball2);
+		return true;
+	}
+
+	/**
+	 * Run the given action on every ball, with the strips in parallel
+	 * @param action The action to run on each ball
+	 */
+	public void forEachBall(Consumer<Ball> action) {
+		run(0, 1, s -> {
+			ArrayList<Ball> strip = balls.get(s);
+			for (int i = 0; i < strip.size(); i++) {
+				action.accept(strip.get(i));
+			}
+		});
+	}
+
+	/**
+	 * Run the given action on every pair, first on the pairs of the even strips in parallel,
+	 * then on those of the odd strips
+	 * @param action The action to run on each pair
+	 */
+	public void forEachPair(BiConsumer<Ball, Ball> action) {
+		for (int phase = 0; phase < 2; phase++) {
+			run(phase, 2, s -> {
+				ArrayList<Ball> firsts = pairFirsts.get(s), seconds = pairSeconds.get(s);
+				for (int i = 0; i < firsts.size(); i++) {
+					action.accept(firsts.get(i), seconds.get(i));
+				}
+			});
+		}
+	}
+
+	/**
+	 * Run the given work on every step-th strip from the given first one, in parallel, and wait for all of it
+	 * @param first The first strip
+	 * @param step The distance between two strips that are run
+	 * @param work The work to do on a strip, given its index
+	 */
+	private void run(int first, int step, IntConsumer work) {
+		tasks.clear();
+		for (int s = first; s < stripCount; s += step) {
+			final int strip = s;
+			tasks.add(ForkJoinTask.adapt(() -> work.accept(strip)));
+		}
+		pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+	}
+
+	/**
+	 * Get the strip that holds the given horizontal location. Locations off the canvas belong to the edge strips.
+	 * @param x A horizontal location
+	 * @return The index of the strip
+	 */
+	private int stripOf(double x) {
+		return (int) Math.max(0, Math.min(stripCount - 1, Math.floor(x / stripWidth)));
+	}
+}
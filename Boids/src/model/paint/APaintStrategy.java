@@ -43,9 +43,9 @@ public abstract class APaintStrategy implements IPaintStrategy {
 	@Override
 	public void paint(Graphics g, Ball host) {
 		double scale = host.getRadius();
-		at.setToTranslation(host.getLoc().x, host.getLoc().y);
+		at.setToTranslation(host.getX(), host.getY());
 		at.scale(scale, scale);
-		at.rotate(Math.atan2(host.getVel().y, host.getVel().x));
+		at.rotate(Math.atan2(host.getVelY(), host.getVelX()));
 		g.setColor(host.getColor());    
 		paintCfg(g, host);
 		paintXfrm(g, host, at);
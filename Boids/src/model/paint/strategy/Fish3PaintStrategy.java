@@ -47,7 +47,7 @@ public class Fish3PaintStrategy extends MultiPaintStrategy {
 	 */
 	protected void paintCfg(Graphics g, Ball host) {
 		super.paintCfg(g, host);
-		if(Math.abs(Math.atan2(host.getVel().y, host.getVel().x)) < Math.PI/2.0) {
+		if(Math.abs(Math.atan2(host.getVelY(), host.getVelX())) < Math.PI/2.0) {
 			at.scale(1.0, -1.0);
 		}        
 	}
@@ -27,7 +27,7 @@ public class SquarePaintStrategy implements IPaintStrategy {
 	public void paint(Graphics g, Ball host) {
 		int halfSide = host.getRadius();
 		g.setColor(host.getColor());
-		g.fillRect(host.getLoc().x-halfSide, host.getLoc().y-halfSide, 2*halfSide, 2*halfSide);
+		g.fillRect((int) host.getX()-halfSide, (int) host.getY()-halfSide, 2*halfSide, 2*halfSide);
 	}
 	
 }
@@ -1,12 +1,11 @@
 package model.update;
 
-import java.awt.Point;
 import java.awt.geom.Point2D;
 
 import model.Ball;
 import model.IBallCmd;
 import model.IInteractStrategy;
-import model.IUpdateStrategy;
+import model.IFlyweightStrategy;
 import util.IDispatcher;
 
 /**
@@ -14,7 +13,7 @@ import util.IDispatcher;
  * @author kq2
  *
  */
-public class BounceStrategy implements IUpdateStrategy {
+public class BounceStrategy implements IFlyweightStrategy {
 
 	@Override
 	public void init(Ball context) {
@@ -26,7 +25,7 @@ public class BounceStrategy implements IUpdateStrategy {
 						double distance = context.distance(target);
 						double minSeparation = context.getRadius() + target.getRadius();
 						double mass = reducedMass(Math.pow(context.getRadius(), 2), Math.pow(target.getRadius(), 2));
-						Point2D.Double imp = impulse(
+						Point2D.Double imp = impulse(context,
 								context.getLoc(), context.getVel(), 
 								target.getLoc(), target.getVel(), 
 								mass, distance, minSeparation - distance);
@@ -85,6 +84,8 @@ public class BounceStrategy implements IUpdateStrategy {
 	 * rebound direction than one would calculate if they contacted at the
 	 * theoretical point given by their actual radii.
 	 * 
+	 * @param source
+	 *            The source ball, which is moved out of collision range
 	 * @param lSource
 	 *            Location of the source ball
 	 * @param vSource
@@ -102,22 +103,22 @@ public class BounceStrategy implements IUpdateStrategy {
 	 *            positive value.  This is the amount of overlap of the balls as measured along the line between their centers.
 	 * @return
 	 */
-	protected Point2D.Double impulse(Point lSource, Point vSource,
-			Point lTarget, Point vTarget, double reducedMass, double distance,
+	protected Point2D.Double impulse(Ball source, Point2D lSource, Point2D vSource,
+			Point2D lTarget, Point2D vTarget, double reducedMass, double distance,
 			double deltaR) {
 		// Calculate the normal vector, from source to target
-		double nx = ((double) (lTarget.x - lSource.x)) / distance;
-		double ny = ((double) (lTarget.y - lSource.y)) / distance;
+		double nx = (lTarget.getX() - lSource.getX()) / distance;
+		double ny = (lTarget.getY() - lSource.getY()) / distance;
 
 		// delta velocity (speed, actually) in normal direction, source to
 		// target
-		double dvn = (vTarget.x - vSource.x) * nx + (vTarget.y - vSource.y)
+		double dvn = (vTarget.getX() - vSource.getX()) * nx + (vTarget.getY() - vSource.getY())
 				* ny;
 
 		// move the source ball beyond collision range of the target ball, along
 		// the normal direction.
-		lSource.translate((int) Math.ceil(-nx * (Nudge * deltaR)),
-				(int) Math.ceil(-ny * (Nudge * deltaR)));
+		source.setLoc(lSource.getX() - nx * (Nudge * deltaR),
+				lSource.getY() - ny * (Nudge * deltaR));
 
 
 		return new Point2D.Double(2.0 * reducedMass * dvn * nx, 2.0
@@ -143,7 +144,7 @@ public class BounceStrategy implements IUpdateStrategy {
 	 */
 	protected void updateCollision(Ball context, Ball target, double impX, double impY, IDispatcher<IBallCmd> dispatcher) {
 		int mContext = context.getRadius() * context.getRadius();
-		context.getVel().translate((int) Math.round(impX / mContext),(int) Math.round(impY / mContext));
+		context.setVel(context.getVelX() + impX / mContext, context.getVelY() + impY / mContext);
 	}
 
 }
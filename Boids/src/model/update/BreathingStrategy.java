@@ -2,36 +2,53 @@ package model.update;
 
 import model.Ball;
 import model.IBallCmd;
-import model.IUpdateStrategy;
+import model.IFlyweightStrategy;
 import util.IDispatcher;
-import util.Randomizer;
-import util.SineMaker;
+import util.SideTable;
 
 /**
- * This strategy changes size every update
+ * This strategy changes size every update, smoothly between 0.8 and 1.2 times the initial radius,
+ * at a rate each ball picks at random
  * @author kq2
  * 
  */
-public class BreathingStrategy implements IUpdateStrategy {
+public class BreathingStrategy implements IFlyweightStrategy {
 
 	/**
-	 * The factory that produces all kinds of random data
+	 * The smallest size, as a share of the initial radius
 	 */
-	private Randomizer rand = Randomizer.Singleton;
+	private static final double MIN = 0.8;
 	/**
-	 * Factories that produce sine value
+	 * The largest size, as a share of the initial radius
 	 */
-	private SineMaker sine = new SineMaker(0.8, 1.2, Math.PI/180 * rand.randomInt(1, 9));
+	private static final double MAX = 1.2;
+	/**
+	 * The column of the current angle of the sine in the side table
+	 */
+	private static final int THETA = 0;
+	/**
+	 * The column of the amount the angle is incremented each update in the side table
+	 */
+	private static final int DELTA = 1;
+	/**
+	 * The angle and rate of each ball's sine, by ball id
+	 */
+	private final SideTable sines = new SideTable(2);
 	
 	@Override
 	public void init(Ball ball) {
-		// no-op
+		// start at the smallest size
+		sines.set(ball.getId(), THETA, -Math.PI/2.0);
+		sines.set(ball.getId(), DELTA, Math.PI/180 * ball.getRandomizer().randomInt(1, 9));
 	}
 
 	@Override
 	public void update(Ball ball, IDispatcher<IBallCmd> disp) {
-		int radius = (int) (ball.getInitRadius() * sine.getDblVal());
-		ball.setRadius(radius);
+		int id = ball.getId();
+		double theta = sines.get(id, THETA);
+		double scale = (MAX + MIN) / 2.0 + (MAX - MIN) / 2.0 * Math.sin(theta);
+		sines.set(id, THETA, theta + sines.get(id, DELTA));
+		ball.setRadius((int) (ball.getInitRadius() * scale));
 	}
 
 }
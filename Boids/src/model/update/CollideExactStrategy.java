@@ -1,11 +1,11 @@
 package model.update;
 
-import java.awt.Point;
 import java.awt.geom.Point2D;
 
 import model.Ball;
 import model.IBallCmd;
-import model.IUpdateStrategy;
+import model.IPairStrategy;
+import model.IFlyweightStrategy;
 import util.IDispatcher;
 
 /**
@@ -13,31 +13,38 @@ import util.IDispatcher;
  * @author Stephen Wong
  *
  */
-public class CollideExactStrategy implements IUpdateStrategy {
+public class CollideExactStrategy implements IFlyweightStrategy, IPairStrategy {
 	
 	@Override
 	public void init(Ball ball) {
 		// no-op
 	}
 
+	/**
+	 * Put the ball into the model's pair pass, which collides each touching pair once.
+	 */
 	@Override
 	public void update(final Ball ball, IDispatcher<IBallCmd> dispatcher) {
-		dispatcher.dispatch((otherBall, disp) -> {
-			if (otherBall != ball) {
-				double minSeparation = ball.getRadius() + otherBall.getRadius();
-				double collisionTime = collisionTime(ball.getLoc(), otherBall.getLoc(), ball.getVel(), otherBall.getVel(), minSeparation);
-				if (-1.0 <= collisionTime && collisionTime < 0.0) {
-					double distance = ball.distance(otherBall);
-					double reducedMass = reducedMass(Math.pow(ball.getRadius(), 2), Math.pow(otherBall.getRadius(), 2));
-					Point2D.Double imp = impulse(
-							ball.getLoc(), ball.getVel(), 
-							otherBall.getLoc(), otherBall.getVel(), 
-							reducedMass, distance, minSeparation - distance);
-					updateCollision(ball, otherBall, imp.x, imp.y, disp, collisionTime);
-					updateCollision(otherBall, ball, -imp.x, -imp.y, disp, collisionTime);
-				}
-			}
-		});
+		ball.setPairStrategy(this);
+	}
+
+	/**
+	 * Collide the two balls if they first touched during the last tick, applying the impulse to both of them.
+	 */
+	@Override
+	public void interact(Ball ball, Ball otherBall, IDispatcher<IBallCmd> disp) {
+		double minSeparation = ball.getRadius() + otherBall.getRadius();
+		double collisionTime = collisionTime(ball.getLoc(), otherBall.getLoc(), ball.getVel(), otherBall.getVel(), minSeparation);
+		if (-1.0 <= collisionTime && collisionTime < 0.0) {
+			double distance = ball.distance(otherBall);
+			double reducedMass = reducedMass(Math.pow(ball.getRadius(), 2), Math.pow(otherBall.getRadius(), 2));
+			Point2D.Double imp = impulse(
+					ball.getLoc(), ball.getVel(), 
+					otherBall.getLoc(), otherBall.getVel(), 
+					reducedMass, distance, minSeparation - distance);
+			updateCollision(ball, otherBall, imp.x, imp.y, disp, collisionTime);
+			updateCollision(otherBall, ball, -imp.x, -imp.y, disp, collisionTime);
+		}
 	}
 
 	/**
@@ -57,9 +64,9 @@ public class CollideExactStrategy implements IUpdateStrategy {
 	 * @param minSeparation The minimum separation, i.e. contact distance between the balls.
 	 * @return The first possible contact time between the two balls.
 	 */
-	private double collisionTime(Point p1, Point p2, Point v1, Point v2, double minSeparation) {
-		Point deltaP = deltaVec(p1, p2);
-		Point deltaV = deltaVec(v1, v2);
+	private double collisionTime(Point2D p1, Point2D p2, Point2D v1, Point2D v2, double minSeparation) {
+		Point2D.Double deltaP = deltaVec(p1, p2);
+		Point2D.Double deltaV = deltaVec(v1, v2);
 		double deltaP2 = deltaP.distanceSq(0.0, 0.0);
 		double deltaV2 = deltaV.distanceSq(0.0, 0.0);
 		double R2 = minSeparation*minSeparation;
@@ -82,8 +89,8 @@ public class CollideExactStrategy implements IUpdateStrategy {
 	 * @param p2 The second point
 	 * @return The difference vector between p1 and p2
 	 */
-	private Point deltaVec(Point p1, Point p2) {
-		return new Point(p2.x - p1.x, p2.y-p1.y);
+	private Point2D.Double deltaVec(Point2D p1, Point2D p2) {
+		return new Point2D.Double(p2.getX() - p1.getX(), p2.getY() - p1.getY());
 	}
 	/**
 	 * Returns the reduced mass of the two balls (m1*m2)/(m1+m2) Gives correct
@@ -127,16 +134,16 @@ public class CollideExactStrategy implements IUpdateStrategy {
 	 *            positive value.  This is the amount of overlap of the balls as measured along the line between their centers.
 	 * @return
 	 */
-	protected Point2D.Double impulse(Point lSource, Point vSource,
-			Point lTarget, Point vTarget, double reducedMass, double distance,
+	protected Point2D.Double impulse(Point2D lSource, Point2D vSource,
+			Point2D lTarget, Point2D vTarget, double reducedMass, double distance,
 			double deltaR) {
 		// Calculate the normal vector, from source to target
-		double nx = ((double) (lTarget.x - lSource.x)) / distance;
-		double ny = ((double) (lTarget.y - lSource.y)) / distance;
+		double nx = (lTarget.getX() - lSource.getX()) / distance;
+		double ny = (lTarget.getY() - lSource.getY()) / distance;
 
 		// delta velocity (speed, actually) in normal direction, source to
 		// target
-		double dvn = (vTarget.x - vSource.x) * nx + (vTarget.y - vSource.y)
+		double dvn = (vTarget.getX() - vSource.getX()) * nx + (vTarget.getY() - vSource.getY())
 				* ny;
 
 
@@ -167,12 +174,12 @@ public class CollideExactStrategy implements IUpdateStrategy {
 			double impY, IDispatcher<IBallCmd> disp, double tContact) {
 		int mContext = context.getRadius() * context.getRadius();
 
-		double dx = context.getVel().x*tContact;
-		double dy = context.getVel().y*tContact;
-		context.getVel().translate((int) Math.round(impX / mContext),(int) Math.round(impY / mContext));
-		dx += -context.getVel().x*tContact;
-		dy += -context.getVel().y*tContact;
-		context.getLoc().translate((int)Math.round(dx), (int)Math.round(dy));
+		double dx = context.getVelX()*tContact;
+		double dy = context.getVelY()*tContact;
+		context.setVel(context.getVelX() + impX / mContext, context.getVelY() + impY / mContext);
+		dx += -context.getVelX()*tContact;
+		dy += -context.getVelY()*tContact;
+		context.setLoc(context.getX() + dx, context.getY() + dy);
 
 		context.interactWith(target, disp);
 	}
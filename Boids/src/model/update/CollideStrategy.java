@@ -1,35 +1,42 @@
 package model.update;
 
-import java.awt.Point;
 import java.awt.geom.Point2D;
 
 import model.Ball;
 import model.IBallCmd;
-import model.IUpdateStrategy;
+import model.IPairStrategy;
+import model.IFlyweightStrategy;
 import util.IDispatcher;
 
-public class CollideStrategy implements IUpdateStrategy {
+public class CollideStrategy implements IFlyweightStrategy, IPairStrategy {
 	
 	@Override
 	public void init(Ball ball) {
 		// no-op
 	}
 
+	/**
+	 * Put the ball into the model's pair pass, which collides each touching pair once.
+	 */
 	@Override
 	public void update(Ball ball, IDispatcher<IBallCmd> dispatcher) {		
-		dispatcher.dispatch((otherBall, disp) -> {
-			if (ball != otherBall) {
-				double distance = ball.distance(otherBall);
-				if (distance < ball.getRadius() + otherBall.getRadius()) {
-					double minSeparation = ball.getRadius() + otherBall.getRadius();
-					double mass = reducedMass(Math.pow(ball.getRadius(), 2), Math.pow(otherBall.getRadius(), 2));
-					Point2D.Double imp = impulse(ball.getLoc(), ball.getVel(), otherBall.getLoc(),
-							otherBall.getVel(), mass, distance, minSeparation - distance);
-					updateCollision(ball, otherBall, imp.x, imp.y, disp);
-					updateCollision(otherBall, ball, -imp.x, -imp.y, disp);
-				} 
-			}
-		});
+		ball.setPairStrategy(this);
+	}
+
+	/**
+	 * Collide the two balls if they overlap, applying the impulse to both of them.
+	 */
+	@Override
+	public void interact(Ball ball, Ball otherBall, IDispatcher<IBallCmd> disp) {
+		double distance = ball.distance(otherBall);
+		if (distance < ball.getRadius() + otherBall.getRadius()) {
+			double minSeparation = ball.getRadius() + otherBall.getRadius();
+			double mass = reducedMass(Math.pow(ball.getRadius(), 2), Math.pow(otherBall.getRadius(), 2));
+			Point2D.Double imp = impulse(ball, ball.getLoc(), ball.getVel(), otherBall.getLoc(),
+					otherBall.getVel(), mass, distance, minSeparation - distance);
+			updateCollision(ball, otherBall, imp.x, imp.y, disp);
+			updateCollision(otherBall, ball, -imp.x, -imp.y, disp);
+		} 
 	}
 	
 	/**
@@ -75,6 +82,8 @@ public class CollideStrategy implements IUpdateStrategy {
 	 * rebound direction than one would calculate if they contacted at the
 	 * theoretical point given by their actual radii.
 	 * 
+	 * @param source
+	 *            The source ball, which is moved out of collision range
 	 * @param lSource
 	 *            Location of the source ball
 	 * @param vSource
@@ -92,22 +101,22 @@ public class CollideStrategy implements IUpdateStrategy {
 	 *            positive value.  This is the amount of overlap of the balls as measured along the line between their centers.
 	 * @return
 	 */
-	protected Point2D.Double impulse(Point lSource, Point vSource,
-			Point lTarget, Point vTarget, double reducedMass, double distance,
+	protected Point2D.Double impulse(Ball source, Point2D lSource, Point2D vSource,
+			Point2D lTarget, Point2D vTarget, double reducedMass, double distance,
 			double deltaR) {
 		// Calculate the normal vector, from source to target
-		double nx = ((double) (lTarget.x - lSource.x)) / distance;
-		double ny = ((double) (lTarget.y - lSource.y)) / distance;
+		double nx = (lTarget.getX() - lSource.getX()) / distance;
+		double ny = (lTarget.getY() - lSource.getY()) / distance;
 
 		// delta velocity (speed, actually) in normal direction, source to
 		// target
-		double dvn = (vTarget.x - vSource.x) * nx + (vTarget.y - vSource.y)
+		double dvn = (vTarget.getX() - vSource.getX()) * nx + (vTarget.getY() - vSource.getY())
 				* ny;
 
 		// move the source ball beyond collision range of the target ball, along
 		// the normal direction.
-		lSource.translate((int) Math.ceil(-nx * (Nudge * deltaR)),
-				(int) Math.ceil(-ny * (Nudge * deltaR)));
+		source.setLoc(lSource.getX() - nx * (Nudge * deltaR),
+				lSource.getY() - ny * (Nudge * deltaR));
 
 
 		return new Point2D.Double(2.0 * reducedMass * dvn * nx, 2.0
@@ -134,7 +143,7 @@ public class CollideStrategy implements IUpdateStrategy {
 	protected void updateCollision(Ball context, Ball target, double impX, double impY, IDispatcher<IBallCmd> dispatcher) {
 		int mContext = context.getRadius() * context.getRadius();
 
-		context.getVel().translate((int) Math.round(impX / mContext),(int) Math.round(impY / mContext));
+		context.setVel(context.getVelX() + impX / mContext, context.getVelY() + impY / mContext);
 		context.interactWith(target, dispatcher);
 	}
 
@@ -0,0 +1,362 @@
+package model.update;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+import model.Ball;
+import model.IBallCmd;
+import model.IPairStrategy;
+import util.IDispatcher;
+
+/**
+ * An event-driven elastic collision engine. At the end of every tick the model hands it the
+ * pairs of balls that may have touched during that tick. The engine predicts the contact time
+ * of each pair, keeps the predicted ball-ball and ball-wall contacts in a priority queue, and
+ * processes them in the order they happened. Processing a contact changes the trajectories of
+ * the balls involved, so only their predictions are thrown away and redone.
+ *
+ * Times are in units of timer ticks relative to the current ball locations, so the last tick
+ * runs from time -1.0 to time 0.0, like the collision time of CollideExactStrategy.
+ * @author kq2
+ *
+ */
+public class CollisionEventEngine {
+
+	/**
+	 * The pair strategy of the balls whose collisions this engine handles.
+	 * It does nothing by itself: the model hands those balls' pairs to the engine instead.
+	 */
+	public static final IPairStrategy PREDICTED = (context, target, disp) -> {};
+
+	/**
+	 * The most contacts processed per ball per tick, so that balls squeezed together
+	 * cannot keep the engine busy forever.
+	 */
+	private static final int MAX_EVENTS_PER_BALL = 8;
+	/**
+	 * How much later than the current event the next event of the same ball must be
+	 */
+	private static final double EPSILON = 1e-9;
+
+	/**
+	 * A predicted contact between two balls, or between a ball and a wall.
+	 * Events are reused from one prediction to the next, see newEvent().
+	 */
+	private static class Event implements Comparable<Event> {
+		/**
+		 * The time of contact
+		 */
+		private double time;
+		/**
+		 * The first ball
+		 */
+		private Ball ball1;
+		/**
+		 * The second ball, or null for a wall contact
+		 */
+		private Ball ball2;
+		/**
+		 * The trajectory versions of the balls when the contact was predicted
+		 */
+		private int version1, version2;
+
+		/**
+		 * Set up this event as a predicted contact
+		 * @param time The time of contact
+		 * @param ball1 The first ball
+		 * @param version1 The trajectory version of the first ball
+		 * @param ball2 The second ball, or null for a wall contact
+		 * @param version2 The trajectory version of the second ball
+		 * @return This event
+		 */
+		private Event set(double time, Ball ball1, int version1, Ball ball2, int version2) {
+			this.time = time;
+			this.ball1 = ball1;
+			this.version1 = version1;
+			this.ball2 = ball2;
+			this.version2 = version2;
+			return this;
+		}
+
+		@Override
+		public int compareTo(Event o) {
+			return Double.compare(time, o.time);
+		}
+	}
+
+	/**
+	 * The first candidate of each ball, by ball id, as an index into the candidate lists, or -1 if the ball has none
+	 */
+	private int[] firstCandidate = new int[0];
+	/**
+	 * The last candidate of each ball, by ball id, so candidates are kept in the order they were added
+	 */
+	private int[] lastCandidate = new int[0];
+	/**
+	 * How many times each ball's trajectory has changed during this tick, by ball id.
+	 * A predicted contact is stale once either of its balls has a newer trajectory.
+	 */
+	private int[] versions = new int[0];
+	/**
+	 * The ball each candidate entry stands for
+	 */
+	private Ball[] candidates = new Ball[16];
+	/**
+	 * The next candidate entry of the same ball, or -1
+	 */
+	private int[] nextCandidate = new int[16];
+	/**
+	 * The number of candidate entries in use
+	 */
+	private int candidateCount = 0;
+	/**
+	 * The ids of the balls that have candidates during this tick, so only their entries are reset
+	 */
+	private int[] paired = new int[16];
+	/**
+	 * The number of balls that have candidates during this tick
+	 */
+	private int pairedCount = 0;
+	/**
+	 * The width of the canvas during the current run
+	 */
+	private int width = 0;
+	/**
+	 * The height of the canvas during the current run
+	 */
+	private int height = 0;
+	/**
+	 * The predicted contacts, earliest first
+	 */
+	private final PriorityQueue<Event> events = new PriorityQueue<Event>();
+	/**
+	 * The events that are not in use, ready to be reused
+	 */
+	private final ArrayList<Event> spareEvents = new ArrayList<Event>();
+
+	/**
+	 * Add a pair of balls that may have touched during the last tick, and predict their contact.
+	 * At least one of the balls should have the PREDICTED pair strategy.
+	 * @param ball1 One ball of the pair
+	 * @param ball2 The other ball of the pair
+	 */
+	public void addPair(Ball ball1, Ball ball2) {
+		addCandidate(ball1, ball2);
+		addCandidate(ball2, ball1);
+		predictPair(ball1, ball2, -1.0);
+	}
+
+	/**
+	 * Process all the predicted contacts of the last tick in time order, then forget all the pairs.
+	 * The balls' ids must not change hands while the engine runs, i.e. no slot is freed during the tick.
+	 * @param disp The dispatcher passed on to the balls' interact strategies
+	 * @param width The width of the canvas the balls bounce in
+	 * @param height The height of the canvas the balls bounce in
+	 */
+	public void run(IDispatcher<IBallCmd> disp, int width, int height) {
+		this.width = width;
+		this.height = height;
+		int budget = MAX_EVENTS_PER_BALL * pairedCount;
+		while (!events.isEmpty() && budget > 0) {
+			Event event = events.poll();
+			Ball ball1 = event.ball1, ball2 = event.ball2;
+			double time = event.time;
+			boolean stale = versions[ball1.getId()] != event.version1 
+					|| (null != ball2 && versions[ball2.getId()] != event.version2);
+			spareEvents.add(event.set(0.0, null, 0, null, 0));
+			if (stale) continue;
+			budget--;
+			if (null == ball2) {
+				ball1.bounce(width, height);
+				changed(ball1, time);
+			} else {
+				collide(ball1, ball2, time, disp);
+				changed(ball1, time);
+				changed(ball2, time);
+			}
+		}
+		for (Event event : events) {
+			spareEvents.add(event.set(0.0, null, 0, null, 0));
+		}
+		events.clear();
+		for (int i = 0; i < pairedCount; i++) {
+			firstCandidate[paired[i]] = -1;
+			versions[paired[i]] = 0;
+		}
+		pairedCount = 0;
+		Arrays.fill(candidates, 0, candidateCount, null);
+		candidateCount = 0;
+	}
+
+	/**
+	 * Throw away the given ball's predictions by bumping its trajectory version,
+	 * then predict its contacts again from the given time on.
+	 * @param ball The ball whose trajectory changed
+	 * @param time The time of the change
+	 */
+	private void changed(Ball ball, double time) {
+		versions[ball.getId()]++;
+		for (int c = firstCandidate[ball.getId()]; c >= 0; c = nextCandidate[c]) {
+			predictPair(ball, candidates[c], time + EPSILON);
+		}
+		predictWalls(ball, time + EPSILON);
+	}
+
+	/**
+	 * Queue the first contact of the two balls, if it happens between the given time and now
+	 * @param ball1 One ball
+	 * @param ball2 The other ball
+	 * @param after The earliest time of interest
+	 */
+	private void predictPair(Ball ball1, Ball ball2, double after) {
+		double t = collisionTime(ball1, ball2, ball1.getRadius() + ball2.getRadius());
+		if (after <= t && t < 0.0) {
+			events.add(newEvent().set(t, ball1, versions[ball1.getId()], ball2, versions[ball2.getId()]));
+		}
+	}
+
+	/**
+	 * Queue the first wall contact of the given ball, if it happens between the given time and now
+	 * @param ball The ball
+	 * @param after The earliest time of interest
+	 */
+	private void predictWalls(Ball ball, double after) {
+		int r = ball.getRadius();
+		double t = Math.min(
+				wallTime(ball.getX(), ball.getVelX(), r, width),
+				wallTime(ball.getY(), ball.getVelY(), r, height));
+		if (after <= t && t < 0.0) {
+			events.add(newEvent().set(t, ball, versions[ball.getId()], null, 0));
+		}
+	}
+
+	/**
+	 * Calculates when a ball moving in one dimension touched or will touch a wall
+	 * @param loc The current location
+	 * @param vel The velocity
+	 * @param radius The radius of the ball
+	 * @param maxBound The maximum location in canvas
+	 * @return The contact time, or Double.MAX_VALUE if the ball does not move
+	 */
+	private double wallTime(double loc, double vel, int radius, int maxBound) {
+		if (vel > 0) return (maxBound - radius - loc) / vel;
+		if (vel < 0) return (radius - loc) / vel;
+		return Double.MAX_VALUE;
+	}
+
+	/**
+	 * Calculates the time of the first contact between two balls. A negative returned time means that the balls
+	 * collided in the past.  A positive time value means that either the balls will collide in the future,
+	 * or if equal to Double.MAX_VALUE, they will never collide, i.e. are traveling parallel to each other.
+	 * The contact time is returned in units of timer ticks.
+	 *
+	 * @param ball1 The first ball
+	 * @param ball2 The second ball
+	 * @param minSeparation The minimum separation, i.e. contact distance between the balls.
+	 * @return The first possible contact time between the two balls.
+	 */
+	private double collisionTime(Ball ball1, Ball ball2, double minSeparation) {
+		double dx = ball2.getX() - ball1.getX(), dy = ball2.getY() - ball1.getY();
+		double du = ball2.getVelX() - ball1.getVelX(), dv = ball2.getVelY() - ball1.getVelY();
+		double deltaP2 = dx*dx + dy*dy;
+		double deltaV2 = du*du + dv*dv;
+		double R2 = minSeparation*minSeparation;
+		double dvdx = du*dx + dv*dy;
+
+		double root2 = dvdx*dvdx - deltaV2*(deltaP2-R2);
+
+		if (root2 < 0.0 || 0.0 == deltaV2) {
+			return Double.MAX_VALUE;   // no solution for t
+		}
+
+		return (-dvdx - Math.sqrt(root2))/deltaV2;   // want most negative time solution, i.e. first contact
+	}
+
+	/**
+	 * Collide two balls that touched at the given time: apply the elastic impulse along the line
+	 * between their centers at the moment of contact, move both balls to where their new velocities
+	 * take them by now, and run their interact strategies.
+	 * @param ball1 One ball
+	 * @param ball2 The other ball
+	 * @param tContact The contact time in ticks. Should be a negative number.
+	 * @param disp The dispatcher passed on to the balls' interact strategies
+	 */
+	private void collide(Ball ball1, Ball ball2, double tContact, IDispatcher<IBallCmd> disp) {
+		double u1 = ball1.getVelX(), v1 = ball1.getVelY(), u2 = ball2.getVelX(), v2 = ball2.getVelY();
+		// the normal vector from ball1 to ball2 at the moment of contact
+		double nx = (ball2.getX() + u2 * tContact) - (ball1.getX() + u1 * tContact);
+		double ny = (ball2.getY() + v2 * tContact) - (ball1.getY() + v1 * tContact);
+		double distance = Math.sqrt(nx * nx + ny * ny);
+		if (0.0 == distance) return;
+		nx /= distance;
+		ny /= distance;
+		// delta velocity in normal direction, from ball1 to ball2
+		double dvn = (u2 - u1) * nx + (v2 - v1) * ny;
+		double mass1 = ball1.getRadius() * ball1.getRadius(), mass2 = ball2.getRadius() * ball2.getRadius();
+		double reducedMass = (mass1 * mass2) / (mass1 + mass2);
+		double impX = 2.0 * reducedMass * dvn * nx, impY = 2.0 * reducedMass * dvn * ny;
+		updateCollision(ball1, impX, impY, tContact);
+		updateCollision(ball2, -impX, -impY, tContact);
+		ball1.interactWith(ball2, disp);
+		ball2.interactWith(ball1, disp);
+	}
+
+	/**
+	 * Updates the velocity and position of the ball, given an impulse received at the given time.
+	 * The change in velocity is the impulse divided by the ball's mass.
+	 * @param ball The ball to update
+	 * @param impX x-coordinate of the impulse
+	 * @param impY y-coordinate of the impulse
+	 * @param tContact The contact time in ticks. Should be a negative number.
+	 */
+	private void updateCollision(Ball ball, double impX, double impY, double tContact) {
+		int mass = ball.getRadius() * ball.getRadius();
+		double u = ball.getVelX() + impX / mass, v = ball.getVelY() + impY / mass;
+		// the ball moved with the old velocity until the contact, and with the new one since
+		double dx = (ball.getVelX() - u) * tContact;
+		double dy = (ball.getVelY() - v) * tContact;
+		ball.setVel(u, v);
+		ball.setLoc(ball.getX() + dx, ball.getY() + dy);
+	}
+
+	/**
+	 * Add a ball to the candidates of another ball
+	 * @param ball A ball
+	 * @param other A ball it may touch
+	 */
+	private void addCandidate(Ball ball, Ball other) {
+		int id = ball.getId();
+		if (id >= firstCandidate.length) {
+			int oldLength = firstCandidate.length, newLength = Math.max(id + 1, 2 * oldLength);
+			firstCandidate = Arrays.copyOf(firstCandidate, newLength);
+			lastCandidate = Arrays.copyOf(lastCandidate, newLength);
+			versions = Arrays.copyOf(versions, newLength);
+			Arrays.fill(firstCandidate, oldLength, newLength, -1);
+		}
+		if (candidateCount == candidates.length) {
+			candidates = Arrays.copyOf(candidates, 2 * candidateCount);
+			nextCandidate = Arrays.copyOf(nextCandidate, 2 * candidateCount);
+		}
+		int c = candidateCount++;
+		candidates[c] = other;
+		nextCandidate[c] = -1;
+		if (firstCandidate[id] < 0) {
+			if (pairedCount == paired.length) paired = Arrays.copyOf(paired, 2 * pairedCount);
+			paired[pairedCount++] = id;
+			firstCandidate[id] = c;
+		} else {
+			nextCandidate[lastCandidate[id]] = c;
+		}
+		lastCandidate[id] = c;
+	}
+
+	/**
+	 * Get an event that is not in use, a spare one if there is any
+	 * @return An event to set up
+	 */
+	private Event newEvent() {
+		int spares = spareEvents.size();
+		return 0 == spares ? new Event() : spareEvents.remove(spares - 1);
+	}
+}
@@ -1,24 +1,17 @@
 package model.update;
 
-import java.awt.Color;
-
 import model.Ball;
 import model.IBallCmd;
-import model.IUpdateStrategy;
+import model.IFlyweightStrategy;
+import util.ColorPalette;
 import util.IDispatcher;
-import util.Randomizer;
 
 /**
- * This strategy changes color every update
+ * This strategy changes color every update, to a random color of the ColorPalette
  * @author kq2
  * 
  */
-public class ColorStrategy implements IUpdateStrategy {
-	/**
-	 * The factory that produces all kinds of random data
-	 */
-	private Randomizer randomizer = Randomizer.Singleton;
-	
+public class ColorStrategy implements IFlyweightStrategy {
 	@Override
 	public void init(Ball ball) {
 		// no-op
@@ -26,8 +19,8 @@ public class ColorStrategy implements IUpdateStrategy {
 	
 	@Override
 	public void update(Ball ball, IDispatcher<IBallCmd> disp) {
-		Color color = randomizer.randomColor();
-		ball.setColor(color);
+		int index = ball.getRandomizer().randomInt(0, ColorPalette.SIZE - 1);
+		ball.setArgb(ColorPalette.getArgb(index));
 	}
 
 }
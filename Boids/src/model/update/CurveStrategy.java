@@ -1,46 +1,62 @@
 package model.update;
 
-import java.awt.Point;
-
 import model.Ball;
 import model.IBallCmd;
-import model.IUpdateStrategy;
+import model.IFlyweightStrategy;
 import util.IDispatcher;
-import util.Randomizer;
+import util.IRandomizer;
+import util.SideTable;
 
 /**
- * This strategy changes direction of velocity every update
+ * This strategy changes direction of velocity every update, by an angle each ball picks at random
  * @author kq2
  * 
  */
-public class CurveStrategy implements IUpdateStrategy {
-	/**
-	 * The factory that produces all kinds of random data
-	 */
-	private Randomizer rand = Randomizer.Singleton;
+public class CurveStrategy implements IFlyweightStrategy {
 	/**
-	 * The velocity's rotating angle in each update
+	 * The column of cos(angle) in the side table
 	 */
-	private double angle =  (Math.random() < 0.5 ? 1.0 : -1.0) * Math.PI / 180.0 * rand.randomDouble(2.0, 6.0); 
+	private static final int COS = 0;
 	/**
-	 * Hold cos(angle)
+	 * The column of sin(angle) in the side table
 	 */
-	private double cosA = Math.cos(angle);
+	private static final int SIN = 1;
 	/**
-	 * Hold sin(angle)
+	 * The cos and sin of each ball's rotating angle, by ball id
 	 */
-	private double sinA = Math.sin(angle);
+	private final SideTable angles = new SideTable(2);
 	
 	@Override
 	public void init(Ball ball) {
-		// no-op
+		double angle = randomAngle(ball.getRandomizer());
+		angles.set(ball.getId(), COS, Math.cos(angle));
+		angles.set(ball.getId(), SIN, Math.sin(angle));
 	}
 	
 	@Override
 	public void update(Ball ball, IDispatcher<IBallCmd> disp) {
-		Point vel = ball.getVel();
-		ball.setVel(vel.x * cosA - vel.y * sinA, 
-				    vel.y * cosA + vel.x * sinA);
+		rotate(ball, angles.get(ball.getId(), COS), angles.get(ball.getId(), SIN));
+	}
+
+	/**
+	 * Pick a random rotating angle, 2 to 6 degrees either way
+	 * @param rand The randomizer to draw the angle from
+	 * @return The angle, in radians
+	 */
+	static double randomAngle(IRandomizer rand) {
+		return (int) rand.randomChoice(1, -1, 0.5) * Math.PI / 180.0 * rand.randomDouble(2.0, 6.0);
+	}
+
+	/**
+	 * Rotate the velocity of a ball
+	 * @param ball The ball
+	 * @param cosA The cos of the rotating angle
+	 * @param sinA The sin of the rotating angle
+	 */
+	static void rotate(Ball ball, double cosA, double sinA) {
+		double u = ball.getVelX(), v = ball.getVelY();
+		ball.setVel(u * cosA - v * sinA, 
+				    v * cosA + u * sinA);
 	}
 
 }
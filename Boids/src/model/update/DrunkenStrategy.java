@@ -2,29 +2,41 @@ package model.update;
 
 import model.Ball;
 import model.IBallCmd;
+import model.IFlyweightStrategy;
 import model.IUpdateStrategy;
 import util.IDispatcher;
+import util.IRandomizer;
 
 /**
  * This strategy does all kinds of updates randomly. 
  * @author kq2
  * 
  */
-public class DrunkenStrategy implements IUpdateStrategy {
+public class DrunkenStrategy implements IFlyweightStrategy {
 	/**
 	 * The breathing-strategy that born with
 	 */
 	private IUpdateStrategy breathingStrategy = new BreathingStrategy();
+	/**
+	 * The color-strategy
+	 */
+	private IUpdateStrategy colorStrategy = new ColorStrategy();
 	
 	@Override
 	public void init(Ball ball) {
-		// no-op
+		breathingStrategy.init(ball);
 	}
 	
 	@Override
 	public void update(Ball ball, IDispatcher<IBallCmd> disp) {
-		IUpdateStrategy strategy = Math.random() < 0.5 ? new CurveStrategy() : new ColorStrategy();
-		strategy.update(ball, disp);
+		IRandomizer rand = ball.getRandomizer();
+		if (rand.randomDouble(0.0, 1.0) < 0.5) {
+			// curve by a new random angle every time
+			double angle = CurveStrategy.randomAngle(rand);
+			CurveStrategy.rotate(ball, Math.cos(angle), Math.sin(angle));
+		} else {
+			colorStrategy.update(ball, disp);
+		}
 		breathingStrategy.update(ball, disp);
 	}
 
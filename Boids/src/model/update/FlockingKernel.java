@@ -0,0 +1,169 @@
+package model.update;
+
+import java.util.Arrays;
+
+import util.Vec2;
+
+/**
+ * The three Boids rules written as a scalar loop over primitive arrays of neighbor candidates,
+ * i.e. structure of arrays instead of Ball objects. The candidates are gathered first, then the 
+ * distance checks and the sums for cohesion, alignment and separation are done in one pass, 
+ * where every condition becomes a 0-or-1 factor of its term. This is plain Java 8 code with no 
+ * SIMD path: the project targets Java 8, which has no Vector API, and the conditions and the 
+ * divide in the loop keep the JIT from vectorizing it. Its gain is that the pass reads 
+ * contiguous arrays rather than chasing a Ball and its store per neighbor.
+ *
+ * @author kq2
+ *
+ */
+public class FlockingKernel {
+
+	/**
+	 * The squared distance within which a neighbor is sensed
+	 */
+	private final double senseSq;
+	/**
+	 * The distance within which a boid moves away from another boid
+	 */
+	private final double rangeBounce;
+	/**
+	 * The squared distance within which a boid moves away from another boid
+	 */
+	private final double bounceSq;
+	/**
+	 * How much the cohesion, alignment and chase accelerations are scaled down
+	 */
+	private final double steerScale;
+	/**
+	 * The maximum speed of a boid
+	 */
+	private final double maxSpeed;
+
+	/**
+	 * The locations of the candidates
+	 */
+	private double[] xs = new double[16], ys = new double[16];
+	/**
+	 * The velocities of the candidates
+	 */
+	private double[] vxs = new double[16], vys = new double[16];
+	/**
+	 * 1.0 for the candidates that are boids of the same kind, 0.0 for the others
+	 */
+	private double[] same = new double[16];
+	/**
+	 * The number of candidates
+	 */
+	private int size = 0;
+
+	/**
+	 * Create a kernel for the given Boids parameters
+	 * @param rangeSense The distance within which a neighbor is sensed
+	 * @param rangeBounce The distance within which a boid moves away from another boid
+	 * @param maxSpeed The maximum speed of a boid
+	 */
+	public FlockingKernel(double rangeSense, double rangeBounce, double maxSpeed) {
+		this.senseSq = rangeSense * rangeSense;
+		this.rangeBounce = rangeBounce;
+		this.bounceSq = rangeBounce * rangeBounce;
+		this.steerScale = 2.0 / rangeSense;
+		this.maxSpeed = maxSpeed;
+	}
+
+	/**
+	 * Forget all the candidates
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Add a neighbor candidate
+	 * @param x The horizontal location
+	 * @param y The vertical location
+	 * @param vx The horizontal velocity
+	 * @param vy The vertical velocity
+	 * @param isSame Whether the candidate is a boid of the same kind
+	 */
+	public void add(double x, double y, double vx, double vy, boolean isSame) {
+		if (size == xs.length) {
+			int newLength = 2 * size;
+			xs = Arrays.copyOf(xs, newLength);
+			ys = Arrays.copyOf(ys, newLength);
+			vxs = Arrays.copyOf(vxs, newLength);
+			vys = Arrays.copyOf(vys, newLength);
+			same = Arrays.copyOf(same, newLength);
+		}
+		xs[size] = x;
+		ys[size] = y;
+		vxs[size] = vx;
+		vys[size] = vy;
+		same[size] = isSame ? 1.0 : 0.0;
+		size++;
+	}
+
+	/**
+	 * Apply the Boids rules to a boid, given the candidates added since the last clear().
+	 * Boids of the same kind within sensing range pull the boid toward their mean location
+	 * and velocity and push it away when too close, and the nearest other ball in range is chased.
+	 * @param x The horizontal location of the boid
+	 * @param y The vertical location of the boid
+	 * @param vx The horizontal velocity of the boid
+	 * @param vy The vertical velocity of the boid
+	 * @param newVel Receives the new velocity of the boid, limited to the maximum speed
+	 * @return false if no candidate is within sensing range, in which case newVel is untouched
+	 */
+	public boolean steer(double x, double y, double vx, double vy, Vec2 newVel) {
+		double count = 0.0, others = 0.0;
+		double sumX = 0.0, sumY = 0.0, sumVX = 0.0, sumVY = 0.0, sepX = 0.0, sepY = 0.0;
+		for (int i = 0; i < size; i++) {
+			double dx = xs[i] - x, dy = ys[i] - y;
+			double d2 = dx * dx + dy * dy;
+			double inRange = d2 < senseSq ? 1.0 : 0.0;
+			double boid = inRange * same[i];
+			// the repulsion is the unit vector away from the neighbor divided by the distance, i.e. -(dx, dy) / d2
+			double repel = boid * (d2 < bounceSq && d2 > 0.0 ? 1.0 : 0.0) / Math.max(d2, Double.MIN_NORMAL);
+			count += inRange;
+			others += inRange - boid;
+			sumX += boid * xs[i];
+			sumY += boid * ys[i];
+			sumVX += boid * vxs[i];
+			sumVY += boid * vys[i];
+			sepX -= repel * dx;
+			sepY -= repel * dy;
+		}
+		if (0.0 == count) return false;
+
+		// every ball in range counts toward the mean, as in the original rules
+		double u = vx + (sumX / count - x) * steerScale + (sumVX / count - vx) * steerScale + sepX * rangeBounce / 2;
+		double v = vy + (sumY / count - y) * steerScale + (sumVY / count - vy) * steerScale + sepY * rangeBounce / 2;
+		if (others > 0.0) {
+			int nearest = nearestOther(x, y);
+			u += (xs[nearest] - x) * steerScale;
+			v += (ys[nearest] - y) * steerScale;
+		}
+		newVel.set(u, v).limit(maxSpeed);
+		return true;
+	}
+
+	/**
+	 * Find the nearest candidate in sensing range that is not a boid of the same kind.
+	 * Only called when there is one.
+	 * @param x The horizontal location of the boid
+	 * @param y The vertical location of the boid
+	 * @return The index of the nearest such candidate
+	 */
+	private int nearestOther(double x, double y) {
+		int nearest = -1;
+		double minD2 = senseSq;
+		for (int i = 0; i < size; i++) {
+			double dx = xs[i] - x, dy = ys[i] - y;
+			double d2 = dx * dx + dy * dy;
+			if (0.0 == same[i] && d2 < minD2) {
+				minD2 = d2;
+				nearest = i;
+			}
+		}
+		return nearest;
+	}
+}
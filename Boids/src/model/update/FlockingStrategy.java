@@ -2,35 +2,97 @@ package model.update;
 
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
+import java.util.Collections;
 
 import model.Ball;
 import model.IBallCmd;
-import model.IUpdateStrategy;
+import model.IBallStore;
+import model.INeighborStrategy;
 import util.IDispatcher;
+import util.Vec2;
 
 /**
- * This strategy implements the Boids algorithm to simulate flocking
+ * This strategy implements the Boids algorithm to simulate flocking. 
+ * It is not a flyweight: it caches the neighbor list of its ball, so every ball needs an instance of its own, 
+ * which the factories and the switcher strategy make sure of.
  * @author kq2
  *
  */
-public class FlockingStrategy implements IUpdateStrategy {
+public class FlockingStrategy implements INeighborStrategy {
 
 	/**
 	 * The fixed radius of this ball
 	 */
-	private final int RADIUS = 10;
+	private static final int RADIUS = 10;
 	/**
 	 * The maximum speed that ball can reach
 	 */
-	private final double MAX_SPEED = 8;
+	private static final double MAX_SPEED = 8;
 	/**
 	 * The maximum radius that ball can sense
 	 */
-	private final double RANGE_SENSE = RADIUS * 20.0;
+	public static final double RANGE_SENSE = RADIUS * 20.0;
 	/**
 	 * Ball moves away from others inside this range. 
 	 */
-	private final double RANGE_BOUNCE = RADIUS * 4.0;
+	private static final double RANGE_BOUNCE = RADIUS * 4.0;
+	/**
+	 * The default skin, i.e. how far beyond RANGE_SENSE the cached neighbor list reaches
+	 */
+	public static final double DEFAULT_SKIN = RADIUS * 4.0;
+
+	/**
+	 * How far beyond RANGE_SENSE the cached neighbor list reaches
+	 */
+	private final double skin;
+	/**
+	 * The ball the cached neighbor list belongs to
+	 */
+	private Ball owner = null;
+	/**
+	 * Where the owner was when the cached neighbor list was built
+	 */
+	private double builtX, builtY;
+	/**
+	 * The drift of the owner's world when the cached neighbor list was built
+	 */
+	private double builtDrift;
+	/**
+	 * The version of the owner's world when the cached neighbor list was built
+	 */
+	private long builtVersion;
+	/**
+	 * The balls that were within RANGE_SENSE plus the skin when the list was built
+	 */
+	private final ArrayList<Ball> cachedNeighbors = new ArrayList<Ball>();
+	/**
+	 * Searches around the ball when the cached neighbor list has to be rebuilt, when this strategy is used on its own
+	 */
+	private final NeighborSearch search = new NeighborSearch(Collections.<INeighborStrategy>singletonList(this));
+	/**
+	 * Applies the Boids rules to the cached neighbors, gathered into primitive arrays
+	 */
+	private final FlockingKernel kernel = new FlockingKernel(RANGE_SENSE, RANGE_BOUNCE, MAX_SPEED);
+	/**
+	 * Receives the new velocity from the kernel, reused for every update
+	 */
+	private final Vec2 newVel = new Vec2();
+
+	/**
+	 * Create a flocking strategy with the default skin
+	 */
+	public FlockingStrategy() {
+		this(DEFAULT_SKIN);
+	}
+
+	/**
+	 * Create a flocking strategy whose cached neighbor list reaches the given skin beyond RANGE_SENSE.
+	 * A bigger skin means fewer rebuilds of the list but more cached neighbors to check in every update.
+	 * @param skin How far beyond RANGE_SENSE the cached neighbor list reaches
+	 */
+	public FlockingStrategy(double skin) {
+		this.skin = skin;
+	}
 
 	@Override
 	public void init(Ball host) {
@@ -39,138 +101,65 @@ public class FlockingStrategy implements IUpdateStrategy {
 
 	@Override
 	public void update(Ball ball, IDispatcher<IBallCmd> disp) {
-		ArrayList<Ball> neighbors = new ArrayList<Ball>();
-		disp.dispatch((other, dispatcher) -> {
-			if (ball != other) {
-				if (ball.distance(other) < RANGE_SENSE) {
-					neighbors.add(other);
-				} 
-			}
-		});
-		if (!neighbors.isEmpty()) boidsMove(ball, neighbors);
+		search.run(ball, disp);
 	}
 
 	/**
-	 * Update the ball's velocity based on the three rules of Boids algorithm. 
-	 * @param ball The ball we want to move 
-	 * @param neighbors The local ball-mates around this ball within some distance
-	 */
-	private void boidsMove(Ball ball, ArrayList<Ball> neighbors) {
-		
-		// the accelerations we will use to change ball's velocity
-		Point2D accChase = new Point2D.Double();
-		Point2D accCohesion = new Point2D.Double();
-		Point2D accAlignment = new Point2D.Double();
-		Point2D accSeparation = new Point2D.Double();
-		
-		double minDist = Double.MAX_VALUE;
-		Point2D meanLoc = new Point2D.Double();
-		Point2D meanVel = new Point2D.Double();
-		
-		for (Ball neighbor : neighbors) {
-			double dist = ball.distance(neighbor);
-			
-			// neighbor is not a boid, chase it!
-			if (ball.getUpdateStrategy().getClass() != neighbor.getUpdateStrategy().getClass()) {
-				if (dist < minDist) {
-					minDist = dist; // find the nearest neighbor
-					accChase = sub(ball.getLoc(), neighbor.getLoc()); // set accChase
-				}
-				
-			// neighbor is also boid, apply boids three rules!
-			} else {
-				meanLoc = add(meanLoc, neighbor.getLoc()); // sum values
-				meanVel = add(meanVel, neighbor.getVel()); // sum values
-				if (dist < RANGE_BOUNCE) {
-					Point2D repel = sub(neighbor.getLoc(), ball.getLoc());
-					repel = div(normalize(repel), dist); // the nearer the stronger
-					accSeparation = add(accSeparation, repel); // set accSeparation
-				}
-			}
-		}
-		meanLoc = div(meanLoc, neighbors.size()); // get the mean value
-		meanVel = div(meanVel, neighbors.size()); // get the mean value
-		accCohesion = sub(ball.getLoc(), meanLoc); // set accCohesion
-		accAlignment = sub(ball.getVel(), meanVel); // set accAlignment
-		
-		// tune each acceleration's magnitude
-		accChase = div(accChase, RANGE_SENSE/2);
-		accCohesion = div(accCohesion, RANGE_SENSE/2);
-		accAlignment = div(accAlignment, RANGE_SENSE/2);
-		accSeparation = mul(accSeparation, RANGE_BOUNCE/2);
-		
-		Point2D newVel = add(add(add(add(ball.getVel(), 
-				accChase), 
-				accCohesion), 
-				accAlignment), 
-				accSeparation);
-		newVel = limit(newVel, MAX_SPEED);
-		ball.setVel(newVel.getX(), newVel.getY());
-		
-	}
-	
-	/**
-	 * Addition of vectors
-	 * @param p First vector
-	 * @param q Second vector
-	 * @return Sum of two vectors
-	 */
-	private Point2D.Double add(Point2D p, Point2D q) {
-		return new Point2D.Double(p.getX() + q.getX(), p.getY() + q.getY());
-	}
-	
-	/**
-	 * Subtraction of vectors
-	 * @param p First vector
-	 * @param q Second vector
-	 * @return A vector from p to q
+	 * Look around only when the cached neighbor list has to be rebuilt, out to RANGE_SENSE plus the skin.
+	 * That is when balls were added or removed since it was built, or when the balls may have closed the skin.
 	 */
-	private Point2D.Double sub(Point2D p, Point2D q) {
-		return new Point2D.Double(q.getX() - p.getX(), q.getY() - p.getY());
+	@Override
+	public double getQueryRadius(Ball ball) {
+		// a ball outside RANGE_SENSE plus the skin only gets within RANGE_SENSE after it and this boid
+		// close the whole skin between them, and no ball moved further than the drift of the world since then
+		IBallStore world = ball.getStore();
+		if (ball != owner || world.getVersion() != builtVersion 
+				|| Point2D.distance(ball.getX(), ball.getY(), builtX, builtY) + world.getDrift() - builtDrift > skin) {
+			return RANGE_SENSE + skin;
+		}
+		return 0;
 	}
-	
+
 	/**
-	 * Multiplication of a vector by a factor
-	 * @param p A vector
-	 * @param factor A factor
-	 * @return New scaled vector
+	 * Start rebuilding the cached neighbor list of the given ball
 	 */
-	private Point2D.Double mul(Point2D p, double factor) {
-		return new Point2D.Double(p.getX() * factor, p.getY() * factor);
+	@Override
+	public void beginNeighbors(Ball ball) {
+		owner = ball;
+		builtX = ball.getX();
+		builtY = ball.getY();
+		builtDrift = ball.getStore().getDrift();
+		builtVersion = ball.getStore().getVersion();
+		cachedNeighbors.clear();
 	}
 
 	/**
-	 * Division of a vector by a factor
-	 * @param p A vector
-	 * @param factor A factor
-	 * @return New scaled vector
+	 * Cache the other ball if it was within RANGE_SENSE plus the skin at the start of the pass
 	 */
-	private Point2D.Double div(Point2D p, double factor) {
-		return new Point2D.Double(p.getX() / factor, p.getY() / factor);
+	@Override
+	public void visitNeighbor(Ball ball, Ball other, IDispatcher<IBallCmd> disp) {
+		if (Point2D.distance(builtX, builtY, other.getPrevX(), other.getPrevY()) < RANGE_SENSE + skin) {
+			cachedNeighbors.add(other);
+		}
 	}
-	
+
 	/**
-	 * Normalize a vector to length 1. 
-	 * @param p A vector
-	 * @return A scaled p of length 1
+	 * Steer the ball by the Boids rules applied to the cached neighbors
 	 */
-	private Point2D.Double normalize(Point2D p) {
-		double factor = Math.sqrt(p.distanceSq(0, 0));
-		return div(p, factor);
-	}
-	
-	/**
-	 * Limit a vector to a maximum length
-	 * @param p A vector
-	 * @param max A maximum length
-	 * @return A scaled p no longer than max. 
-	 */
-	private Point2D limit(Point2D p, double max) {
-		double sq = p.distanceSq(0, 0);
-		if (sq > max*max) {
-			double factor = max / Math.sqrt(sq);
-			return mul(p, factor);
+	@Override
+	public void endNeighbors(Ball ball, IDispatcher<IBallCmd> disp) {
+		// gather the cached neighbors as they were at the start of the pass, 
+		// the kernel itself checks which are within RANGE_SENSE
+		Class<?> kind = ball.getUpdateStrategy().getClass();
+		kernel.clear();
+		for (int i = 0; i < cachedNeighbors.size(); i++) {
+			Ball other = cachedNeighbors.get(i);
+			if (other.isRemoved()) continue;
+			kernel.add(other.getPrevX(), other.getPrevY(), other.getPrevVelX(), other.getPrevVelY(), 
+					kind == other.getUpdateStrategy().getClass());
+		}
+		if (kernel.steer(ball.getX(), ball.getY(), ball.getVelX(), ball.getVelY(), newVel)) {
+			ball.setVel(newVel.x, newVel.y);
 		}
-		return p;
 	}
 }
@@ -1,10 +1,8 @@
 package model.update;
 
-import java.awt.Point;
-
 import model.Ball;
 import model.IBallCmd;
-import model.IUpdateStrategy;
+import model.IFlyweightStrategy;
 import util.IDispatcher;
 
 /**
@@ -12,7 +10,7 @@ import util.IDispatcher;
  * @author kq2
  * 
  */
-public class HoldStrategy implements IUpdateStrategy {
+public class HoldStrategy implements IFlyweightStrategy {
 	
 	@Override
 	public void init(Ball ball) {
@@ -21,10 +19,10 @@ public class HoldStrategy implements IUpdateStrategy {
 
 	@Override
 	public void update(Ball ball, IDispatcher<IBallCmd> disp) {
-		Point vel = ball.getVel();
-		ball.setVel(-vel.x, -vel.y);
+		double u = ball.getVelX(), v = ball.getVelY();
+		ball.setVel(-u, -v);
 		ball.move();
-		ball.setVel(vel.x, vel.y);
+		ball.setVel(u, v);
 	}
 
 }
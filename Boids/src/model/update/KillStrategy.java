@@ -5,7 +5,7 @@ import java.awt.Color;
 import model.Ball;
 import model.IBallCmd;
 import model.IInteractStrategy;
-import model.IUpdateStrategy;
+import model.IFlyweightStrategy;
 import util.IDispatcher;
 
 /**
@@ -13,7 +13,7 @@ import util.IDispatcher;
  * @author kq2
  *
  */
-public class KillStrategy implements IUpdateStrategy {
+public class KillStrategy implements IFlyweightStrategy {
 
 	@Override
 	public void init(Ball context) {
@@ -1,12 +1,19 @@
 package model.update;
 
+import java.util.ArrayList;
+
 import model.Ball;
 import model.IBallCmd;
+import model.IFlyweightStrategy;
+import model.INeighborStrategy;
 import model.IUpdateStrategy;
 import util.IDispatcher;
 
 /**
- * The strategy that holds multiple strategies
+ * The strategy that holds multiple strategies.
+ * The parts that look at the balls around the ball, i.e. INeighborStrategy parts, also those inside 
+ * nested MultiStrategies, share one search per update instead of each searching the dispatcher. 
+ * The search runs where the first of them is, and the other parts run in their own order.
  * @author kq2
  *
  */
@@ -19,6 +26,14 @@ public class MultiStrategy implements IUpdateStrategy {
 	 * The second strategy, could also be a MultiStrategy
 	 */
 	private IUpdateStrategy _s2;
+	/**
+	 * All the strategies held, with the nested MultiStrategies flattened
+	 */
+	private final ArrayList<IUpdateStrategy> parts = new ArrayList<IUpdateStrategy>();
+	/**
+	 * The search shared by the parts that look around
+	 */
+	private final NeighborSearch search;
 	
 	/**
 	 * Creates a strategy that holds two strategies
@@ -28,6 +43,36 @@ public class MultiStrategy implements IUpdateStrategy {
 	public MultiStrategy(IUpdateStrategy s1, IUpdateStrategy s2) {
 		_s1 = s1; 
 		_s2 = s2; 
+		addParts(s1);
+		addParts(s2);
+		ArrayList<INeighborStrategy> searchers = new ArrayList<INeighborStrategy>();
+		for (IUpdateStrategy part : parts) {
+			if (part instanceof INeighborStrategy) searchers.add((INeighborStrategy) part);
+		}
+		search = new NeighborSearch(searchers);
+	}
+
+	/**
+	 * Add a strategy to the parts, or its parts if it is a MultiStrategy
+	 * @param s A strategy
+	 */
+	private void addParts(IUpdateStrategy s) {
+		if (s instanceof MultiStrategy) {
+			parts.addAll(((MultiStrategy) s).parts);
+		} else {
+			parts.add(s);
+		}
+	}
+	
+	/**
+	 * Check if all the strategies held are flyweights, so that this strategy can be shared by all the balls of a world too
+	 * @return true if every part is an IFlyweightStrategy
+	 */
+	public boolean isFlyweight() {
+		for (int i = 0; i < parts.size(); i++) {
+			if (!(parts.get(i) instanceof IFlyweightStrategy)) return false;
+		}
+		return true;
 	}
 	
 	@Override
@@ -38,8 +83,16 @@ public class MultiStrategy implements IUpdateStrategy {
 	
 	@Override
 	public void update(Ball ball, IDispatcher<IBallCmd> disp) {
-		_s1.update(ball, disp); 
-		_s2.update(ball, disp);
+		boolean searched = false;
+		for (int i = 0; i < parts.size(); i++) {
+			IUpdateStrategy part = parts.get(i);
+			if (!(part instanceof INeighborStrategy)) {
+				part.update(ball, disp);
+			} else if (!searched) {
+				search.run(ball, disp);
+				searched = true;
+			}
+		}
 	}
 
 }
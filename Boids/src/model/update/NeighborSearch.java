@@ -0,0 +1,109 @@
+package model.update;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.Ball;
+import model.IBallCmd;
+import model.INeighborStrategy;
+import util.IDispatcher;
+
+/**
+ * Runs the update of one or more INeighborStrategy parts of a ball with a single search of the
+ * dispatcher, at the largest radius any of them asks for, and hands every ball found to each part
+ * that asked. A part that looks less than half as far as that gets a search of its own instead,
+ * since the spatial index answers a small search for less than it costs the part to check every
+ * ball of the big one. Reuses its own search state, so a search allocates nothing.
+ *
+ * @author kq2
+ *
+ */
+public class NeighborSearch {
+
+	/**
+	 * The smallest share of the largest radius of a search that a part may ask for and still share the search
+	 */
+	private static final double MIN_SHARE = 0.5;
+
+	/**
+	 * The parts that share the search
+	 */
+	private final ArrayList<INeighborStrategy> parts;
+	/**
+	 * The radius each part asked for in the current update, 0 once the part was searched for
+	 */
+	private final double[] radii;
+	/**
+	 * The parts that share the current search
+	 */
+	private final ArrayList<INeighborStrategy> searching = new ArrayList<INeighborStrategy>();
+	/**
+	 * The ball being updated
+	 */
+	private Ball ball = null;
+	/**
+	 * Where the search is made from, reused for every search
+	 */
+	private final Point2D.Double center = new Point2D.Double();
+	/**
+	 * Hands a ball found by the search to every part that asked
+	 */
+	private final IBallCmd visit = (other, disp) -> {
+		if (ball != other) {
+			for (int i = 0; i < searching.size(); i++) {
+				searching.get(i).visitNeighbor(ball, other, disp);
+			}
+		}
+	};
+
+	/**
+	 * Create a search shared by the given parts
+	 * @param parts The parts, in the order they take the balls found
+	 */
+	public NeighborSearch(List<INeighborStrategy> parts) {
+		this.parts = new ArrayList<INeighborStrategy>(parts);
+		this.radii = new double[parts.size()];
+	}
+
+	/**
+	 * Update the ball with all the parts: search around it for the parts that ask, 
+	 * as few times as possible, then let every part finish
+	 * @param ball The ball being updated
+	 * @param disp The dispatcher to search
+	 */
+	public void run(Ball ball, IDispatcher<IBallCmd> disp) {
+		for (int i = 0; i < parts.size(); i++) {
+			radii[i] = parts.get(i).getQueryRadius(ball);
+			if (radii[i] > 0) parts.get(i).beginNeighbors(ball);
+		}
+		this.ball = ball;
+		center.setLocation(ball.getX(), ball.getY());
+		for (double radius = maxRadius(); radius > 0; radius = maxRadius()) {
+			searching.clear();
+			for (int i = 0; i < parts.size(); i++) {
+				if (radii[i] >= MIN_SHARE * radius) {
+					searching.add(parts.get(i));
+					radii[i] = 0;
+				}
+			}
+			disp.dispatch(visit, center, radius);
+		}
+		this.ball = null;
+		for (int i = 0; i < parts.size(); i++) {
+			parts.get(i).endNeighbors(ball, disp);
+		}
+	}
+
+	/**
+	 * Get the largest radius of the parts not searched for yet
+	 * @return The largest radius, or 0 if all the parts that asked were searched for
+	 */
+	private double maxRadius() {
+		double radius = 0;
+		for (int i = 0; i < parts.size(); i++) {
+			radius = Math.max(radius, radii[i]);
+		}
+		return radius;
+	}
+}
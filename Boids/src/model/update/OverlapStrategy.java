@@ -1,15 +1,25 @@
 package model.update;
 
+import java.awt.geom.Point2D;
+import java.util.Collections;
+
 import model.Ball;
 import model.IBallCmd;
-import model.IUpdateStrategy;
+import model.INeighborStrategy;
 import util.IDispatcher;
 
 /**
  * A strategy that determines if it senses another balls. If so, invoke interact strategy of the ball.
+ * Overlaps are checked on the balls as they were at the last snapshot, and the interactions run
+ * once the update pass is over, so the result is the same however the balls are updated.
  *
  */
-public class OverlapStrategy implements IUpdateStrategy {
+public class OverlapStrategy implements INeighborStrategy {
+
+	/**
+	 * Searches around the ball, when this strategy is used on its own
+	 */
+	private final NeighborSearch search = new NeighborSearch(Collections.<INeighborStrategy>singletonList(this));
 
 	@Override
 	public void init(Ball context){	
@@ -23,14 +33,36 @@ public class OverlapStrategy implements IUpdateStrategy {
 	 */
 
 	public void update(final Ball ball, IDispatcher<IBallCmd> dispatcher) {
-		dispatcher.dispatch((other, disp) -> {
-			if (ball != other) {
-				double dist = ball.distance(other);
-				if (dist < ball.getRadius() + other.getRadius()) {
-					ball.interactWith(other, disp);
-				} 
-			}
-		});
+		search.run(ball, dispatcher);
+	}
+
+	/**
+	 * Look around as far as the radius of the ball
+	 */
+	@Override
+	public double getQueryRadius(Ball ball) {
+		return ball.getPrevRadius();
+	}
+
+	@Override
+	public void beginNeighbors(Ball ball) {
+		// no-op
+	}
+
+	/**
+	 * Interact with the other ball if the two overlap
+	 */
+	@Override
+	public void visitNeighbor(Ball ball, Ball other, IDispatcher<IBallCmd> disp) {
+		double dist = Point2D.distance(ball.getPrevX(), ball.getPrevY(), other.getPrevX(), other.getPrevY());
+		if (dist < ball.getPrevRadius() + other.getPrevRadius()) {
+			ball.interactLater(other);
+		} 
+	}
+
+	@Override
+	public void endNeighbors(Ball ball, IDispatcher<IBallCmd> disp) {
+		// no-op
 	}
 	
 }
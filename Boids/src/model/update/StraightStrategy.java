@@ -2,7 +2,7 @@ package model.update;
 
 import model.Ball;
 import model.IBallCmd;
-import model.IUpdateStrategy;
+import model.IFlyweightStrategy;
 import util.IDispatcher;
 
 /**
@@ -10,7 +10,7 @@ import util.IDispatcher;
  * @author kq2
  * 
  */
-public class StraightStrategy implements IUpdateStrategy {
+public class StraightStrategy implements IFlyweightStrategy {
 	
 	@Override
 	public void init(Ball ball) {
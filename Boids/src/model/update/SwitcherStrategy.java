@@ -1,35 +1,98 @@
 package model.update;
 
+import java.util.Arrays;
+
 import model.Ball;
 import model.IBallCmd;
+import model.IFlyweightStrategy;
+import model.IInteractStrategy;
 import model.IUpdateStrategy;
+import model.IUpdateStrategyFac;
 import util.IDispatcher;
+import util.SideTable;
 
 /**
  * @author kq2
  * The strategy that can set to a new strategy. (initial is straight)
+ * All the switcher balls share this strategy, and the strategy switched to if it is a flyweight. 
+ * Otherwise each ball gets an instance of its own from the factory, so strategies that keep 
+ * state of their own ball, e.g. flocking, are not shared by balls. On a switch, every switcher ball is moved over to the new strategy with 
+ * switchBall(), never from inside a tick.
  */
 public class SwitcherStrategy implements IUpdateStrategy {
 	/**
-	 * The initial strategy (StraightStrategy)
+	 * The factory of the current strategy (StraightStrategy at first)
+	 */
+	private IUpdateStrategyFac _factory = () -> new StraightStrategy(); 
+	/**
+	 * The instance of the current strategy shared by all the balls if it is a flyweight, else null
+	 */
+	private IUpdateStrategy shared = new StraightStrategy();
+	/**
+	 * The current strategy of each ball, by ball id
 	 */
-	private IUpdateStrategy _strategy = new StraightStrategy(); 
+	private IUpdateStrategy[] strategies = new IUpdateStrategy[16];
+	/**
+	 * The color of each ball when it became a switcher ball, as packed ARGB, by ball id
+	 */
+	private final SideTable originalColors = new SideTable(1);
 	
 	@Override
 	public void init(Ball ball) {
-		// no-op
+		originalColors.set(ball.getId(), 0, ball.getArgb());
+		startStrategy(ball);
 	}
 
 	@Override
 	public void update(Ball ball, IDispatcher<IBallCmd> disp) {
-		_strategy.update(ball, disp);
+		strategies[ball.getId()].update(ball, disp);
+	}
+	/**
+	 * Switch to a new strategy. The switcher balls must then be moved over to it with switchBall().
+	 * @param factory The factory of the new update-strategy 
+	 */
+	public void setStrategy(IUpdateStrategyFac factory) {
+		IUpdateStrategy strategy = factory.make();
+		_factory = factory; 
+		shared = isFlyweight(strategy) ? strategy : null;
 	}
+
+	/**
+	 * Check if a strategy keeps no state of its own, so that all the balls can share it
+	 * @param strategy An update strategy
+	 * @return true if the strategy is a flyweight, or a MultiStrategy of flyweights
+	 */
+	private static boolean isFlyweight(IUpdateStrategy strategy) {
+		if (strategy instanceof MultiStrategy) return ((MultiStrategy) strategy).isFlyweight();
+		return strategy instanceof IFlyweightStrategy;
+	}
+
+	/**
+	 * Move a switcher ball over to the current strategy. First undo what the init of the strategies 
+	 * before may have done to the ball, i.e. give it back its first color and radius and drop its 
+	 * interact strategy, then init the current strategy, so e.g. switching to kill and back twice
+	 * leaves the ball as it was. Must be called from one thread at a time, outside of a tick.
+	 * @param ball A ball whose update strategy is this switcher
+	 */
+	public void switchBall(Ball ball) {
+		ball.setArgb((int) originalColors.get(ball.getId(), 0));
+		ball.setRadius(ball.getInitRadius());
+		ball.setInteractStrategy(IInteractStrategy.NULL_STRATEGY);
+		startStrategy(ball);
+	}
+
 	/**
-	 * Switch to a new strategy
-	 * @param newStrategy A new update-strategy 
+	 * Give a ball the current strategy and init it. Grows the table of strategies when needed, 
+	 * so it must be called from one thread at a time, outside of a tick.
+	 * @param ball A ball whose update strategy is this switcher
 	 */
-	public void setStrategy(IUpdateStrategy newStrategy) {
-		_strategy = newStrategy; 
+	private void startStrategy(Ball ball) {
+		int id = ball.getId();
+		if (id >= strategies.length) {
+			strategies = Arrays.copyOf(strategies, Math.max(id + 1, 2 * strategies.length));
+		}
+		strategies[id] = null != shared ? shared : _factory.make();
+		strategies[id].init(ball);
 	}
 
 }
@@ -2,7 +2,7 @@ package model.update;
 
 import model.Ball;
 import model.IBallCmd;
-import model.IUpdateStrategy;
+import model.IFlyweightStrategy;
 import util.IDispatcher;
 
 /**
@@ -10,7 +10,7 @@ import util.IDispatcher;
  * @author kq2
  * 
  */
-public class WanderStrategy implements IUpdateStrategy {
+public class WanderStrategy implements IFlyweightStrategy {
 	
 	@Override
 	public void init(Ball ball) {
@@ -19,8 +19,8 @@ public class WanderStrategy implements IUpdateStrategy {
 
 	@Override
 	public void update(Ball ball, IDispatcher<IBallCmd> disp) {
-		IUpdateStrategy strategy = new CurveStrategy();
-		strategy.update(ball, disp);
+		double angle = CurveStrategy.randomAngle(ball.getRandomizer());
+		CurveStrategy.rotate(ball, Math.cos(angle), Math.sin(angle));
 	}
 
 }
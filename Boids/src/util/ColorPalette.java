@@ -0,0 +1,86 @@
+package util;
+
+import java.awt.Color;
+
+/**
+ * A fixed palette of interned, slightly transparent Colors: 16 levels of each of red, green and blue.
+ * Recoloring a ball to a palette color only stores its packed ARGB value, and painting looks the
+ * Color back up by its index, so neither makes a new Color.
+ *
+ * @author kq2
+ */
+public class ColorPalette {
+
+	/**
+	 * The number of levels of each of red, green and blue
+	 */
+	private static final int LEVELS = 16;
+	/**
+	 * The step between two levels of a color component
+	 */
+	private static final int STEP = 255 / (LEVELS - 1);
+	/**
+	 * The alpha of every palette color, the same as Randomizer.randomColor()
+	 */
+	private static final int ALPHA = 210;
+	/**
+	 * The number of colors in the palette
+	 */
+	public static final int SIZE = LEVELS * LEVELS * LEVELS;
+	/**
+	 * The interned colors, by index
+	 */
+	private static final Color[] colors = new Color[SIZE];
+
+	static {
+		for (int i = 0; i < SIZE; i++) {
+			colors[i] = new Color(getArgb(i), true);
+		}
+	}
+
+	/**
+	 * No instances, the palette is shared
+	 */
+	private ColorPalette() {
+	}
+
+	/**
+	 * Get a palette color as packed ARGB
+	 * @param index The index of the color, from 0 to SIZE-1
+	 * @return The packed ARGB value of the color
+	 */
+	public static int getArgb(int index) {
+		int r = index / (LEVELS * LEVELS), g = index / LEVELS % LEVELS, b = index % LEVELS;
+		return (ALPHA << 24) | (r * STEP << 16) | (g * STEP << 8) | (b * STEP);
+	}
+
+	/**
+	 * Get the interned Color of a palette color
+	 * @param index The index of the color, from 0 to SIZE-1
+	 * @return The Color
+	 */
+	public static Color getColor(int index) {
+		return colors[index];
+	}
+
+	/**
+	 * Find a packed ARGB value in the palette
+	 * @param argb A packed ARGB value
+	 * @return The index of the color, or -1 if it is not a palette color
+	 */
+	public static int indexOf(int argb) {
+		int r = argb >> 16 & 0xFF, g = argb >> 8 & 0xFF, b = argb & 0xFF;
+		if (ALPHA != argb >>> 24 || 0 != r % STEP || 0 != g % STEP || 0 != b % STEP) return -1;
+		return (r / STEP * LEVELS + g / STEP) * LEVELS + b / STEP;
+	}
+
+	/**
+	 * Get a Color for a packed ARGB value, the interned one if it is a palette color
+	 * @param argb A packed ARGB value
+	 * @return A Color with that value
+	 */
+	public static Color toColor(int argb) {
+		int index = indexOf(argb);
+		return index < 0 ? new Color(argb, true) : colors[index];
+	}
+}
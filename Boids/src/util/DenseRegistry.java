@@ -0,0 +1,250 @@
+package util;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * A registry of items in a dense array. Adding is an append and removing moves the last item into
+ * the hole, so both take constant time no matter how many items there are. Items are compared
+ * by identity and are never in the registry twice.
+ *
+ * While a batch is open, e.g. during a dispatch or a whole tick, adds and removes are queued
+ * instead, so whoever is walking the array never sees it change under them. The queued changes
+ * are applied in one go when the outermost batch ends. Batches may be opened and closed from
+ * several threads at once.
+ *
+ * @author kq2
+ *
+ * @param <T> The type of items in the registry
+ */
+public class DenseRegistry<T> extends AbstractCollection<T> {
+
+	/**
+	 * The items, in the first size places
+	 */
+	private Object[] items = new Object[16];
+	/**
+	 * The number of items
+	 */
+	private int size = 0;
+	/**
+	 * Where each item is in the array
+	 */
+	private final IdentityHashMap<Object, int[]> slots = new IdentityHashMap<Object, int[]>();
+	/**
+	 * The number of open batches
+	 */
+	private final AtomicInteger openBatches = new AtomicInteger();
+	/**
+	 * The items to add when the outermost batch ends
+	 */
+	private final ArrayList<T> pendingAdds = new ArrayList<T>();
+	/**
+	 * The items to remove when the outermost batch ends, after the pending adds
+	 */
+	private final ArrayList<Object> pendingRemoves = new ArrayList<Object>();
+	/**
+	 * Whether to remove all the items when the outermost batch ends, before the pending adds
+	 */
+	private boolean pendingClear = false;
+	/**
+	 * Told about every item that leaves the registry, when it actually leaves
+	 */
+	private Consumer<? super T> removeListener = item -> {};
+
+	/**
+	 * Set what is told about every item that leaves the registry. Since removes are queued during 
+	 * a batch, an item is only passed to it when the remove is applied, and for a clear, every item is.
+	 * @param listener Takes every removed item
+	 */
+	public void setRemoveListener(Consumer<? super T> listener) {
+		this.removeListener = listener;
+	}
+
+	/**
+	 * Open a batch. Until it ends, adds and removes are queued.
+	 */
+	public void beginBatch() {
+		openBatches.incrementAndGet();
+	}
+
+	/**
+	 * Close a batch. When the outermost batch ends, the queued adds and removes are applied.
+	 */
+	public void endBatch() {
+		if (0 == openBatches.decrementAndGet()) {
+			applyPending();
+		}
+	}
+
+	/**
+	 * Get the item at the given place in the array
+	 * @param i A place in the array, less than size()
+	 * @return The item there
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(int i) {
+		return (T) items[i];
+	}
+
+	/**
+	 * Sort the items. Must not be called while the array is being walked.
+	 * @param order The order to sort the items in
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized void sort(Comparator<? super T> order) {
+		Arrays.sort((T[]) items, 0, size, order);
+		for (int i = 0; i < size; i++) {
+			slots.get(items[i])[0] = i;
+		}
+	}
+
+	@Override
+	public synchronized boolean add(T item) {
+		if (openBatches.get() > 0) {
+			pendingAdds.add(item);
+			return true;
+		}
+		return addNow(item);
+	}
+
+	@Override
+	public synchronized boolean remove(Object item) {
+		if (openBatches.get() > 0) {
+			pendingRemoves.add(item);
+			return true;
+		}
+		return removeNow(item);
+	}
+
+	@Override
+	public synchronized void clear() {
+		if (openBatches.get() > 0) {
+			pendingAdds.clear();
+			pendingRemoves.clear();
+			pendingClear = true;
+			return;
+		}
+		clearNow();
+	}
+
+	@Override
+	public synchronized boolean contains(Object item) {
+		return slots.containsKey(item);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		return new Iterator<T>() {
+			private int next = 0;
+
+			@Override
+			public boolean hasNext() {
+				return next < size;
+			}
+
+			@Override
+			public T next() {
+				if (next >= size) throw new NoSuchElementException();
+				return get(next++);
+			}
+		};
+	}
+
+	/**
+	 * Apply the queued adds and removes
+	 */
+	private synchronized void applyPending() {
+		// another batch may have opened since the last one ended
+		if (openBatches.get() > 0) return;
+		if (pendingClear) {
+			clearNow();
+			pendingClear = false;
+		}
+		for (int i = 0; i < pendingAdds.size(); i++) {
+			addNow(pendingAdds.get(i));
+		}
+		// removing from the back first leaves the same order however the removes were queued, e.g. from several workers
+		pendingRemoves.sort(Comparator.comparingInt(this::slotOf).reversed());
+		for (int i = 0; i < pendingRemoves.size(); i++) {
+			removeNow(pendingRemoves.get(i));
+		}
+		pendingAdds.clear();
+		pendingRemoves.clear();
+	}
+
+	/**
+	 * Get where an item is in the array
+	 * @param item An item
+	 * @return The place of the item, or -1 if it is not there
+	 */
+	private int slotOf(Object item) {
+		int[] slot = slots.get(item);
+		return null == slot ? -1 : slot[0];
+	}
+
+	/**
+	 * Append an item, unless it is already there
+	 * @param item The item to add
+	 * @return true if the item was added
+	 */
+	private boolean addNow(T item) {
+		if (slots.containsKey(item)) return false;
+		if (size == items.length) items = Arrays.copyOf(items, 2 * size);
+		slots.put(item, new int[] { size });
+		items[size++] = item;
+		return true;
+	}
+
+	/**
+	 * Remove an item by moving the last item into its place
+	 * @param item The item to remove
+	 * @return true if the item was there
+	 */
+	private boolean removeNow(Object item) {
+		int[] slot = slots.remove(item);
+		if (null == slot) return false;
+		Object last = items[--size];
+		items[size] = null;
+		if (last != item) {
+			items[slot[0]] = last;
+			slots.get(last)[0] = slot[0];
+		}
+		removed(item);
+		return true;
+	}
+
+	/**
+	 * Remove all the items
+	 */
+	private void clearNow() {
+		int oldSize = size;
+		size = 0;
+		slots.clear();
+		for (int i = 0; i < oldSize; i++) {
+			removed(items[i]);
+			items[i] = null;
+		}
+	}
+
+	/**
+	 * Tell the remove listener about an item that left
+	 * @param item The item
+	 */
+	@SuppressWarnings("unchecked")
+	private void removed(Object item) {
+		removeListener.accept((T) item);
+	}
+}
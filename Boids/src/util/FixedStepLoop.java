@@ -0,0 +1,173 @@
+package util;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a tick at a fixed rate on a thread of its own, paced with System.nanoTime. The loop keeps
+ * an accumulator of the time owed to the tick, so a tick that runs late is made up for by running
+ * the ticks that are due back to back, instead of being dropped. When the loop falls further
+ * behind than a few steps, the rest of the owed time is forgotten, so a tick that is always too slow
+ * cannot make the loop fall ever further behind.
+ *
+ * In turbo, every step runs several ticks, to fast-forward the simulation.
+ *
+ * @author kq2
+ */
+public class FixedStepLoop {
+
+	/**
+	 * The most steps that are run back to back to catch up
+	 */
+	private static final int MAX_CATCH_UP = 5;
+	/**
+	 * The time over which the tick rate is measured, in nanoseconds
+	 */
+	private static final long RATE_WINDOW = 1000000000L;
+
+	/**
+	 * The name of the loop's thread
+	 */
+	private final String name;
+	/**
+	 * The tick to run
+	 */
+	private final Runnable tick;
+	/**
+	 * The time between two steps, in nanoseconds
+	 */
+	private volatile long stepNanos;
+	/**
+	 * The number of ticks each step runs
+	 */
+	private volatile int ticksPerStep = 1;
+	/**
+	 * The thread that runs the loop, or null when the loop is stopped.
+	 * A thread left over from before a stop quits as soon as it sees it is not this thread anymore.
+	 */
+	private volatile Thread thread = null;
+	/**
+	 * The number of ticks run per second, over the last second
+	 */
+	private volatile double tickRate = 0;
+
+	/**
+	 * Create a stopped loop
+	 * @param name The name of the loop's thread
+	 * @param tick The tick to run
+	 * @param periodMillis The time between two steps, in milliseconds
+	 */
+	public FixedStepLoop(String name, Runnable tick, long periodMillis) {
+		this.name = name;
+		this.tick = tick;
+		setPeriod(periodMillis);
+	}
+
+	/**
+	 * Start running the ticks on a new thread, unless they already run
+	 */
+	public synchronized void start() {
+		if (null != thread) return;
+		thread = new Thread(this::loop, name);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stop running the ticks. A tick that is running now still finishes.
+	 */
+	public synchronized void stop() {
+		if (null == thread) return;
+		Thread stopped = thread;
+		thread = null;
+		LockSupport.unpark(stopped);
+		tickRate = 0;
+	}
+
+	/**
+	 * Check if the ticks run
+	 * @return true if the loop is started
+	 */
+	public boolean isRunning() {
+		return null != thread;
+	}
+
+	/**
+	 * Set the time between two steps
+	 * @param periodMillis The time between two steps, in milliseconds
+	 */
+	public void setPeriod(long periodMillis) {
+		stepNanos = Math.max(1, periodMillis) * 1000000L;
+	}
+
+	/**
+	 * Set the number of ticks each step runs, more than one to fast-forward
+	 * @param ticksPerStep The number of ticks per step
+	 */
+	public void setTicksPerStep(int ticksPerStep) {
+		this.ticksPerStep = Math.max(1, ticksPerStep);
+	}
+
+	/**
+	 * Get the number of ticks each step runs
+	 * @return The number of ticks per step
+	 */
+	public int getTicksPerStep() {
+		return ticksPerStep;
+	}
+
+	/**
+	 * Get the number of ticks that were actually run per second, over the last second
+	 * @return The achieved tick rate, 0 when the loop is stopped
+	 */
+	public double getTickRate() {
+		return tickRate;
+	}
+
+	/**
+	 * Run the steps that are due, then park until the next one is, until the loop is stopped
+	 */
+	private void loop() {
+		Thread self = Thread.currentThread();
+		long next = System.nanoTime();
+		long windowStart = next;
+		int windowTicks = 0;
+		while (self == thread) {
+			long now = System.nanoTime();
+			long owed = now - next;
+			if (owed < 0) {
+				LockSupport.parkNanos(-owed);
+				continue;
+			}
+			long step = stepNanos;
+			if (owed > MAX_CATCH_UP * step) {
+				// too far behind, forget the steps that cannot be made up for
+				next = now - MAX_CATCH_UP * step;
+				owed = MAX_CATCH_UP * step;
+			}
+			long steps = owed / step + 1;
+			int ticks = (int) steps * ticksPerStep;
+			for (int i = 0; i < ticks && self == thread; i++) {
+				runTick();
+				windowTicks++;
+			}
+			next += steps * step;
+			if (now - windowStart >= RATE_WINDOW) {
+				tickRate = windowTicks * 1e9 / (now - windowStart);
+				windowStart = now;
+				windowTicks = 0;
+			}
+		}
+	}
+
+	/**
+	 * Run the tick once. An exception thrown by the tick is printed and does not stop the loop.
+	 */
+	private void runTick() {
+		try {
+			tick.run();
+		} catch (RuntimeException ex) {
+			System.err.println("Tick failed. \nException = \n" + ex);
+			ex.printStackTrace();
+		}
+	}
+}
@@ -0,0 +1,152 @@
+package util;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A CopyOnWriteArrayList-based IDispatcher that dispatches to its IObservers in parallel on a
+ * dedicated ForkJoinPool. Every dispatch works on an array snapshot of the IObservers, which is
+ * split in halves until the pieces are no bigger than the grain size, so every worker gets
+ * evenly sized chunks of contiguous IObservers.
+ *
+ * A dispatch made from inside another dispatch, i.e. on one of the pool's workers, runs
+ * sequentially on that worker instead of forking more tasks, so nested dispatches cannot
+ * oversubscribe the pool.
+ *
+ * @author kq2
+ *
+ * @param <TDispMsg> The type of message sent to the registered IObservers
+ */
+public class ForkJoinDispatcher<TDispMsg> extends ACollectionDispatcher<TDispMsg> {
+
+	/**
+	 * The default number of IObservers a single task dispatches to
+	 */
+	public static final int DEFAULT_GRAIN_SIZE = 256;
+
+	/**
+	 * The registered IObservers, the same Collection the superclass holds
+	 */
+	private final CopyOnWriteArrayList<IObserver<TDispMsg>> observers;
+	/**
+	 * The pool the dispatches run on
+	 */
+	private final ForkJoinPool pool;
+	/**
+	 * The most IObservers a single task dispatches to before it splits
+	 */
+	private final int grainSize;
+
+	/**
+	 * Create a dispatcher with its own pool of one worker per processor and the default grain size
+	 */
+	public ForkJoinDispatcher() {
+		this(new ForkJoinPool(Runtime.getRuntime().availableProcessors()), DEFAULT_GRAIN_SIZE);
+	}
+
+	/**
+	 * Create a dispatcher that runs on the given pool
+	 * @param pool The pool to run the dispatches on, which should not be shared with unrelated work
+	 * @param grainSize The most IObservers a single task dispatches to
+	 */
+	public ForkJoinDispatcher(ForkJoinPool pool, int grainSize) {
+		this(new CopyOnWriteArrayList<IObserver<TDispMsg>>(), pool, grainSize);
+	}
+
+	/**
+	 * Create a dispatcher that stores its IObservers in the given list
+	 * @param observers An empty list for the IObservers
+	 * @param pool The pool to run the dispatches on
+	 * @param grainSize The most IObservers a single task dispatches to
+	 */
+	private ForkJoinDispatcher(CopyOnWriteArrayList<IObserver<TDispMsg>> observers, ForkJoinPool pool, int grainSize) {
+		super(observers);
+		this.observers = observers;
+		this.pool = pool;
+		this.grainSize = Math.max(1, grainSize);
+	}
+
+	/**
+	 * {@inheritDoc}<br/>
+	 * Implementation: Parallel dispatch over chunks of an array snapshot of the IObservers,
+	 * or sequential dispatch if called from inside another dispatch on this dispatcher's pool.
+	 */
+	@Override
+	public void dispatch(TDispMsg msg) {
+		Object[] snapshot = observers.toArray();
+		if (ForkJoinTask.getPool() == pool || snapshot.length <= grainSize) {
+			dispatchRange(snapshot, 0, snapshot.length, msg);
+		} else {
+			pool.invoke(new Chunk(snapshot, 0, snapshot.length, msg));
+		}
+	}
+
+	/**
+	 * {@inheritDoc}<br/>
+	 * Implementation: Add the given observer to the list, unless it is already there.
+	 */
+	@Override
+	public void addObserver(IObserver<TDispMsg> obs) {
+		observers.addIfAbsent(obs);
+	}
+
+	/**
+	 * Dispatch the message to a range of the snapshot, sequentially
+	 * @param snapshot The IObservers to dispatch to
+	 * @param from The first index of the range
+	 * @param to The index after the last index of the range
+	 * @param msg The message to pass to the IObservers
+	 */
+	private void dispatchRange(Object[] snapshot, int from, int to, TDispMsg msg) {
+		for (int i = from; i < to; i++) {
+			@SuppressWarnings("unchecked")
+			IObserver<TDispMsg> o = (IObserver<TDispMsg>) snapshot[i];
+			o.execute(this, msg);
+		}
+	}
+
+	/**
+	 * A task that dispatches to a range of the snapshot, splitting it in halves while it is bigger than the grain size
+	 */
+	private class Chunk extends RecursiveAction {
+		private static final long serialVersionUID = 6046498717441425484L;
+		/**
+		 * The IObservers to dispatch to
+		 */
+		private final Object[] snapshot;
+		/**
+		 * The range of the snapshot this task dispatches to
+		 */
+		private final int from, to;
+		/**
+		 * The message to pass to the IObservers
+		 */
+		private final TDispMsg msg;
+
+		/**
+		 * Create a task for a range of the snapshot
+		 * @param snapshot The IObservers to dispatch to
+		 * @param from The first index of the range
+		 * @param to The index after the last index of the range
+		 * @param msg The message to pass to the IObservers
+		 */
+		private Chunk(Object[] snapshot, int from, int to, TDispMsg msg) {
+			this.snapshot = snapshot;
+			this.from = from;
+			this.to = to;
+			this.msg = msg;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= grainSize) {
+				dispatchRange(snapshot, from, to, msg);
+			} else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new Chunk(snapshot, from, mid, msg), new Chunk(snapshot, mid, to, msg));
+			}
+		}
+	}
+}
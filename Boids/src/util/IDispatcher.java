@@ -1,5 +1,8 @@
 package util;
 
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+
 /**
  * An dispatcher of messages of type TDispMsg to its registered IObserver<TDispMsg> objects.  
  * The dispatcher is an Observable in the Observer-Observable design pattern
@@ -19,6 +22,31 @@ public interface IDispatcher<TDispMsg> {
 	 */
 	public void dispatch(TDispMsg msg);
 
+	/**
+	 * Dispatch the given message to the registered Observers that come within the given radius 
+	 * of the given center.  Observers outside of the region may also receive the message, so 
+	 * the receivers are still responsible for their own distance checks.
+	 * By default, the message is simply dispatched to all the registered Observers.
+	 * @param msg  The message to pass to the observers
+	 * @param center  The center of the region of interest
+	 * @param radius  The radius of the region of interest
+	 */
+	public default void dispatch(TDispMsg msg, Point2D center, double radius) {
+		dispatch(msg);
+	}
+
+	/**
+	 * Dispatch the given message to the registered Observers that overlap the given region.  
+	 * Observers outside of the region may also receive the message, so the receivers are 
+	 * still responsible for their own bounds checks.
+	 * By default, the message is simply dispatched to all the registered Observers.
+	 * @param msg  The message to pass to the observers
+	 * @param region  The region of interest
+	 */
+	public default void dispatch(TDispMsg msg, Rectangle2D region) {
+		dispatch(msg);
+	}
+
 	/**
 	 * Register the given observer in the dispatcher
 	 * @param obs  The observer to register
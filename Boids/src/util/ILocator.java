@@ -0,0 +1,32 @@
+package util;
+
+/**
+ * Tells a spatial index where an item is and how far it extends from that location.
+ *
+ * @author kq2
+ *
+ * @param <T> The type of items being located
+ */
+public interface ILocator<T> {
+
+	/**
+	 * Get the horizontal location of the given item
+	 * @param item The item to locate
+	 * @return The x-coordinate of the item's center
+	 */
+	public double getX(T item);
+
+	/**
+	 * Get the vertical location of the given item
+	 * @param item The item to locate
+	 * @return The y-coordinate of the item's center
+	 */
+	public double getY(T item);
+
+	/**
+	 * Get how far the given item reaches out from its center, e.g. its radius.
+	 * @param item The item to locate
+	 * @return A non-negative extent
+	 */
+	public double getExtent(T item);
+}
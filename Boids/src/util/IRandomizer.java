@@ -76,4 +76,46 @@ public interface IRandomizer {
 	 * @return Either x or y as per the probability of choosing them. 
 	 */
 	public Object randomChoice(Object x, Object y, double probX);
+
+	/**
+	 * Fills the first count places of the given arrays with random locations, each drawn like randomLoc(rect)
+	 * @param rect The bounds for the x and y values of the locations
+	 * @param xs The array for the x values
+	 * @param ys The array for the y values
+	 * @param count The number of locations
+	 */
+	public void randomLocs(Rectangle rect, double[] xs, double[] ys, int count);
+
+	/**
+	 * Fills the first count places of the given arrays with random velocities, each drawn like randomVel(rect)
+	 * @param rect The bounds for the absolute value of the velocity in the x and y directions
+	 * @param vxs The array for the x values
+	 * @param vys The array for the y values
+	 * @param count The number of velocities
+	 */
+	public void randomVels(Rectangle rect, double[] vxs, double[] vys, int count);
+
+	/**
+	 * Fills the first count places of the given array with random integers, each drawn like randomInt(min, max)
+	 * @param min The minimum allowed value
+	 * @param max The maximum allowed value
+	 * @param values The array for the integers
+	 * @param count The number of integers
+	 */
+	public void randomInts(int min, int max, int[] values, int count);
+
+	/**
+	 * Fills the first count places of the given array with random colors, each drawn like randomColor(), 
+	 * as packed ARGB values
+	 * @param argbs The array for the colors
+	 * @param count The number of colors
+	 */
+	public void randomColors(int[] argbs, int count);
+
+	/**
+	 * Returns a new randomizer with a random stream of its own, e.g. for one ball. 
+	 * A seeded randomizer always splits into the same streams, in the same order.
+	 * @return A new, independent randomizer
+	 */
+	public IRandomizer split();
 }
@@ -0,0 +1,45 @@
+package util;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * A spatial index that answers "who is near here?" queries about a collection of items.
+ * The index is a snapshot: it only knows the locations the items had when it was last rebuilt.
+ *
+ * @author kq2
+ *
+ * @param <T> The type of items being indexed
+ */
+public interface ISpatialIndex<T> {
+
+	/**
+	 * Throw away the old snapshot and index the current locations of the given items.
+	 * @param items The items to index
+	 */
+	public void rebuild(Collection<T> items);
+
+	/**
+	 * Visit every indexed item whose extent comes within the given radius of the given point.
+	 * Items that are farther away may be visited too, but no item is visited twice.
+	 * @param x The x-coordinate of the query center
+	 * @param y The y-coordinate of the query center
+	 * @param radius The query radius
+	 * @param visitor The function to run on each item found
+	 */
+	public void query(double x, double y, double radius, Consumer<? super T> visitor);
+
+	/**
+	 * Visit every indexed item whose extent overlaps the given rectangle.
+	 * Items that are farther away may be visited too, but no item is visited twice.
+	 * @param region The query rectangle
+	 * @param visitor The function to run on each item found
+	 */
+	public void query(Rectangle2D region, Consumer<? super T> visitor);
+
+	/**
+	 * Remove all the items from this index.
+	 */
+	public void clear();
+}
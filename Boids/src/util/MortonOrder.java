@@ -0,0 +1,58 @@
+package util;
+
+import java.util.Comparator;
+
+/**
+ * Utility class for the Morton (Z-order) curve, which maps 2D locations onto a line so that
+ * locations that are close to each other in 2D are mostly close to each other on the line too.
+ * Sorting items by their Morton keys puts spatial neighbors next to each other in memory.
+ *
+ * @author kq2
+ */
+public class MortonOrder {
+
+	/**
+	 * No instances, only static utilities.
+	 */
+	private MortonOrder() {
+	}
+
+	/**
+	 * Get the Morton key of a cell, made by interleaving the bits of its column and row.
+	 * @param col The column of the cell
+	 * @param row The row of the cell
+	 * @return The Morton key of the cell
+	 */
+	public static long key(int col, int row) {
+		// flip the sign bits so negative columns and rows sort before positive ones
+		return spread(col ^ Integer.MIN_VALUE) | (spread(row ^ Integer.MIN_VALUE) << 1);
+	}
+
+	/**
+	 * Make a comparator that orders items by the Morton key of the cell they are in.
+	 * @param locator Tells where the items are
+	 * @param cellSize The side length of a cell. Items in the same cell are equal in this order.
+	 * @param <T> The type of items being compared
+	 * @return A comparator that orders items along the Morton curve
+	 */
+	public static <T> Comparator<T> comparator(ILocator<? super T> locator, double cellSize) {
+		return (item1, item2) -> Long.compareUnsigned(
+				key((int) Math.floor(locator.getX(item1) / cellSize), (int) Math.floor(locator.getY(item1) / cellSize)),
+				key((int) Math.floor(locator.getX(item2) / cellSize), (int) Math.floor(locator.getY(item2) / cellSize)));
+	}
+
+	/**
+	 * Spread the 32 bits of the given int out over the even bits of a long.
+	 * @param value The bits to spread
+	 * @return The spread bits
+	 */
+	private static long spread(int value) {
+		long x = value & 0xFFFFFFFFL;
+		x = (x | (x << 16)) & 0x0000FFFF0000FFFFL;
+		x = (x | (x << 8)) & 0x00FF00FF00FF00FFL;
+		x = (x | (x << 4)) & 0x0F0F0F0F0F0F0F0FL;
+		x = (x | (x << 2)) & 0x3333333333333333L;
+		x = (x | (x << 1)) & 0x5555555555555555L;
+		return x;
+	}
+}
@@ -0,0 +1,289 @@
+package util;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * An adaptive quadtree spatial index. A node is split into four quadrants only while it holds
+ * more than a few items, so densely clustered regions get deep, fine subdivisions while empty
+ * space costs nothing. This keeps queries cheap even when most of the items crowd into a few
+ * tight flocks, where a uniform grid ends up with almost everything in a handful of cells.
+ *
+ * The tree is rebuilt from scratch by partitioning the items in place, so the node and item
+ * arrays are reused from one rebuild to the next.
+ *
+ * @author kq2
+ *
+ * @param <T> The type of items being indexed
+ */
+public class QuadTree<T> implements ISpatialIndex<T> {
+
+	/**
+	 * The most items a node holds before it is split
+	 */
+	private static final int LEAF_CAPACITY = 8;
+	/**
+	 * The deepest a node can be, so that many items at the same spot do not split forever
+	 */
+	private static final int MAX_DEPTH = 16;
+
+	/**
+	 * Tells where the items are
+	 */
+	private final ILocator<? super T> locator;
+	/**
+	 * The items, ordered so that each node's items are contiguous
+	 */
+	private Object[] items = new Object[0];
+	/**
+	 * The location and extent of each item
+	 */
+	private double[] xs = new double[0], ys = new double[0], extents = new double[0];
+	/**
+	 * The number of indexed items
+	 */
+	private int size = 0;
+	/**
+	 * The largest extent of any indexed item
+	 */
+	private double maxExtent = 0.0;
+	/**
+	 * The bounds of each node
+	 */
+	private double[] nodeMinX = new double[0], nodeMinY = new double[0], nodeMaxX = new double[0], nodeMaxY = new double[0];
+	/**
+	 * The range of items each node holds, from nodeStart inclusive to nodeEnd exclusive
+	 */
+	private int[] nodeStart = new int[0], nodeEnd = new int[0];
+	/**
+	 * The first of the four children of each node, or -1 for a leaf
+	 */
+	private int[] nodeChild = new int[0];
+	/**
+	 * The number of nodes in use
+	 */
+	private int nodeCount = 0;
+
+	/**
+	 * Create an empty quadtree
+	 * @param locator Tells where the items are
+	 */
+	public QuadTree(ILocator<? super T> locator) {
+		this.locator = locator;
+	}
+
+	@Override
+	public void rebuild(Collection<T> newItems) {
+		Arrays.fill(items, 0, size, null);
+		size = 0;
+		maxExtent = 0.0;
+		double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+		for (T item : newItems) {
+			ensureItemCapacity(size + 1);
+			items[size] = item;
+			xs[size] = locator.getX(item);
+			ys[size] = locator.getY(item);
+			extents[size] = locator.getExtent(item);
+			minX = Math.min(minX, xs[size]);
+			minY = Math.min(minY, ys[size]);
+			maxX = Math.max(maxX, xs[size]);
+			maxY = Math.max(maxY, ys[size]);
+			maxExtent = Math.max(maxExtent, extents[size]);
+			size++;
+		}
+		nodeCount = 0;
+		if (0 == size) return;
+		// make the root square so that the quadrants stay square too
+		double side = Math.max(maxX - minX, maxY - minY);
+		build(newNode(minX, minY, minX + side, minY + side, 0, size), 0);
+	}
+
+	/**
+	 * Split the given node into quadrants if it holds too many items, and recurse into them.
+	 * @param node The node to build
+	 * @param depth The depth of the node
+	 */
+	private void build(int node, int depth) {
+		int start = nodeStart[node], end = nodeEnd[node];
+		if (end - start <= LEAF_CAPACITY || depth >= MAX_DEPTH) {
+			nodeChild[node] = -1;
+			return;
+		}
+		double x0 = nodeMinX[node], y0 = nodeMinY[node], x1 = nodeMaxX[node], y1 = nodeMaxY[node];
+		double midX = (x0 + x1) / 2.0, midY = (y0 + y1) / 2.0;
+		// split into top and bottom halves, then split each half into left and right
+		int midRow = partition(start, end, ys, midY);
+		int midTop = partition(start, midRow, xs, midX);
+		int midBottom = partition(midRow, end, xs, midX);
+
+		int child = newNode(x0, y0, midX, midY, start, midTop);
+		newNode(midX, y0, x1, midY, midTop, midRow);
+		newNode(x0, midY, midX, y1, midRow, midBottom);
+		newNode(midX, midY, x1, y1, midBottom, end);
+		nodeChild[node] = child;
+		for (int i = 0; i < 4; i++) {
+			build(child + i, depth + 1);
+		}
+	}
+
+	@Override
+	public void query(double x, double y, double radius, Consumer<? super T> visitor) {
+		if (0 == nodeCount) return;
+		queryCircle(0, x, y, radius, visitor);
+	}
+
+	/**
+	 * Visit the items of the given subtree that come within the given radius of the given point
+	 * @param node The root of the subtree
+	 * @param x The x-coordinate of the query center
+	 * @param y The y-coordinate of the query center
+	 * @param radius The query radius
+	 * @param visitor The function to run on each item found
+	 */
+	private void queryCircle(int node, double x, double y, double radius, Consumer<? super T> visitor) {
+		double reach = radius + maxExtent;
+		if (x + reach < nodeMinX[node] || x - reach > nodeMaxX[node]
+				|| y + reach < nodeMinY[node] || y - reach > nodeMaxY[node]) {
+			return;
+		}
+		int child = nodeChild[node];
+		if (child < 0) {
+			for (int i = nodeStart[node]; i < nodeEnd[node]; i++) {
+				double dx = xs[i] - x, dy = ys[i] - y, r = radius + extents[i];
+				if (dx * dx + dy * dy <= r * r) {
+					@SuppressWarnings("unchecked")
+					T item = (T) items[i];
+					visitor.accept(item);
+				}
+			}
+		} else {
+			for (int i = 0; i < 4; i++) {
+				queryCircle(child + i, x, y, radius, visitor);
+			}
+		}
+	}
+
+	@Override
+	public void query(Rectangle2D region, Consumer<? super T> visitor) {
+		if (0 == nodeCount) return;
+		queryRect(0, region.getMinX(), region.getMinY(), region.getMaxX(), region.getMaxY(), visitor);
+	}
+
+	/**
+	 * Visit the items of the given subtree whose extents overlap the given rectangle
+	 * @param node The root of the subtree
+	 * @param x0 The left edge of the rectangle
+	 * @param y0 The top edge of the rectangle
+	 * @param x1 The right edge of the rectangle
+	 * @param y1 The bottom edge of the rectangle
+	 * @param visitor The function to run on each item found
+	 */
+	private void queryRect(int node, double x0, double y0, double x1, double y1, Consumer<? super T> visitor) {
+		if (x1 + maxExtent < nodeMinX[node] || x0 - maxExtent > nodeMaxX[node]
+				|| y1 + maxExtent < nodeMinY[node] || y0 - maxExtent > nodeMaxY[node]) {
+			return;
+		}
+		int child = nodeChild[node];
+		if (child < 0) {
+			for (int i = nodeStart[node]; i < nodeEnd[node]; i++) {
+				double ext = extents[i];
+				if (xs[i] + ext >= x0 && xs[i] - ext <= x1 && ys[i] + ext >= y0 && ys[i] - ext <= y1) {
+					@SuppressWarnings("unchecked")
+					T item = (T) items[i];
+					visitor.accept(item);
+				}
+			}
+		} else {
+			for (int i = 0; i < 4; i++) {
+				queryRect(child + i, x0, y0, x1, y1, visitor);
+			}
+		}
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(items, 0, size, null);
+		size = 0;
+		nodeCount = 0;
+		maxExtent = 0.0;
+	}
+
+	/**
+	 * Reorder the items in the given range so that those with coord below the pivot come first
+	 * @param start The start of the range, inclusive
+	 * @param end The end of the range, exclusive
+	 * @param coord Either xs or ys
+	 * @param pivot The value to partition around
+	 * @return The index of the first item whose coord is not below the pivot
+	 */
+	private int partition(int start, int end, double[] coord, double pivot) {
+		int i = start, j = end - 1;
+		while (i <= j) {
+			if (coord[i] < pivot) {
+				i++;
+			} else {
+				swap(i, j--);
+			}
+		}
+		return i;
+	}
+
+	/**
+	 * Swap two items along with their locations and extents
+	 * @param i The index of one item
+	 * @param j The index of the other item
+	 */
+	private void swap(int i, int j) {
+		Object item = items[i]; items[i] = items[j]; items[j] = item;
+		double x = xs[i]; xs[i] = xs[j]; xs[j] = x;
+		double y = ys[i]; ys[i] = ys[j]; ys[j] = y;
+		double ext = extents[i]; extents[i] = extents[j]; extents[j] = ext;
+	}
+
+	/**
+	 * Add a node
+	 * @param x0 The left edge of the node
+	 * @param y0 The top edge of the node
+	 * @param x1 The right edge of the node
+	 * @param y1 The bottom edge of the node
+	 * @param start The first item of the node
+	 * @param end One past the last item of the node
+	 * @return The index of the new node
+	 */
+	private int newNode(double x0, double y0, double x1, double y1, int start, int end) {
+		if (nodeCount == nodeStart.length) {
+			int newLength = 2 * nodeCount + 4;
+			nodeMinX = Arrays.copyOf(nodeMinX, newLength);
+			nodeMinY = Arrays.copyOf(nodeMinY, newLength);
+			nodeMaxX = Arrays.copyOf(nodeMaxX, newLength);
+			nodeMaxY = Arrays.copyOf(nodeMaxY, newLength);
+			nodeStart = Arrays.copyOf(nodeStart, newLength);
+			nodeEnd = Arrays.copyOf(nodeEnd, newLength);
+			nodeChild = Arrays.copyOf(nodeChild, newLength);
+		}
+		nodeMinX[nodeCount] = x0;
+		nodeMinY[nodeCount] = y0;
+		nodeMaxX[nodeCount] = x1;
+		nodeMaxY[nodeCount] = y1;
+		nodeStart[nodeCount] = start;
+		nodeEnd[nodeCount] = end;
+		nodeChild[nodeCount] = -1;
+		return nodeCount++;
+	}
+
+	/**
+	 * Grow the item arrays so they can hold at least the given number of items
+	 * @param capacity The number of items to hold
+	 */
+	private void ensureItemCapacity(int capacity) {
+		if (items.length >= capacity) return;
+		int newLength = Math.max(capacity, 2 * items.length);
+		items = Arrays.copyOf(items, newLength);
+		xs = Arrays.copyOf(xs, newLength);
+		ys = Arrays.copyOf(ys, newLength);
+		extents = Arrays.copyOf(extents, newLength);
+	}
+}
@@ -0,0 +1,20 @@
+package util;
+
+/**
+ * A SpatialDispatcher whose spatial index is an adaptive quadtree, so region dispatches stay cheap
+ * no matter how tightly the IObservers are clustered.
+ *
+ * @author kq2
+ *
+ * @param <TDispMsg> The type of message sent to the registered IObservers
+ */
+public class QuadTreeDispatcher<TDispMsg> extends SpatialDispatcher<TDispMsg> {
+
+	/**
+	 * Create a dispatcher backed by a quadtree
+	 * @param locator Tells the quadtree where the IObservers are
+	 */
+	public QuadTreeDispatcher(ILocator<? super IObserver<TDispMsg>> locator) {
+		super(new QuadTree<IObserver<TDispMsg>>(locator));
+	}
+}
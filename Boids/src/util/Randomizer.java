@@ -1,20 +1,58 @@
 package util;
 
 import java.awt.*;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
- * Utility class that supplies  class routines for generating various random values
+ * Utility class that supplies  class routines for generating various random values.
+ * The singleton draws from the calling thread's own ThreadLocalRandom, so threads never contend 
+ * on a shared seed. A randomizer made from a seed draws from a 
+ * SplittableRandom instead, so it always produces the same values, and splits into 
+ * the same independent streams. Such a randomizer must only be used by one thread at a time.
  */
 public class Randomizer implements IRandomizer {
 	/**
 	 * The singleton of this factory
 	 */
-	public static Randomizer Singleton = new Randomizer();
+	public static Randomizer Singleton = new Randomizer((SplittableRandom) null);
+
+	/**
+	 * The stream the random values are drawn from, or null to draw from the calling thread's ThreadLocalRandom
+	 */
+	private final SplittableRandom source;
 
 	/**
 	 * Create a factory that can produce all kinds of random data. 
+	 * @param source The stream to draw from, or null to draw from the calling thread's ThreadLocalRandom
 	 */
-	private Randomizer() {
+	private Randomizer(SplittableRandom source) {
+		this.source = source;
+	}
+
+	/**
+	 * Create a factory that produces the same random data every time it is made from the same seed
+	 * @param seed The seed of the random stream
+	 */
+	public Randomizer(long seed) {
+		this(new SplittableRandom(seed));
+	}
+
+	/**
+	 * Returns a random double greater than or equal to 0 and less than 1
+	 * @return The next value of the stream
+	 */
+	private double nextDouble() {
+		return null == source ? ThreadLocalRandom.current().nextDouble() : source.nextDouble();
+	}
+
+	/**
+	 * Returns a new randomizer with a random stream of its own. 
+	 * The singleton splits into streams with unpredictable seeds.
+	 * @return A new, independent randomizer
+	 */
+	public IRandomizer split() {
+		return new Randomizer(null == source ? new SplittableRandom(ThreadLocalRandom.current().nextLong()) : source.split());
 	}
 
 	/**
@@ -43,7 +81,7 @@ public class Randomizer implements IRandomizer {
 	 * @return an int subject to the given bounds
 	 */
 	public int randomInt(int min, int max) {
-		return (int)Math.floor((Math.random()*(1+max-min))+min);
+		return (int)Math.floor((nextDouble()*(1+max-min))+min);
 	}
 
 	/**
@@ -53,7 +91,7 @@ public class Randomizer implements IRandomizer {
 	 * @return a double subject to the given bounds
 	 */
 	public double randomDouble(double min, double max) {
-		return (Math.random()*(max-min))+min;
+		return (nextDouble()*(max-min))+min;
 	}
 
 	/**
@@ -97,6 +135,59 @@ public class Randomizer implements IRandomizer {
 		return new Color(randomInt(0,255),randomInt(0,255),randomInt(0,255),210);
 	}
 
+	/**
+	 * Fills the first count places of the given arrays with random locations, each drawn like randomLoc(rect)
+	 * @param rect The bounds for the x and y values of the locations
+	 * @param xs The array for the x values
+	 * @param ys The array for the y values
+	 * @param count The number of locations
+	 */
+	public void randomLocs(Rectangle rect, double[] xs, double[] ys, int count) {
+		for (int i = 0; i < count; i++) {
+			xs[i] = randomInt(rect.x, rect.width);
+			ys[i] = randomInt(rect.y, rect.height);
+		}
+	}
+
+	/**
+	 * Fills the first count places of the given arrays with random velocities, each drawn like randomVel(rect)
+	 * @param rect The bounds for the absolute value of the velocity in the x and y directions
+	 * @param vxs The array for the x values
+	 * @param vys The array for the y values
+	 * @param count The number of velocities
+	 */
+	public void randomVels(Rectangle rect, double[] vxs, double[] vys, int count) {
+		for (int i = 0; i < count; i++) {
+			vxs[i] = (nextDouble() < 0.5 ? 1 : -1) * randomInt(rect.x, rect.width);
+			vys[i] = (nextDouble() < 0.5 ? 1 : -1) * randomInt(rect.y, rect.height);
+		}
+	}
+
+	/**
+	 * Fills the first count places of the given array with random integers, each drawn like randomInt(min, max)
+	 * @param min The minimum allowed value
+	 * @param max The maximum allowed value
+	 * @param values The array for the integers
+	 * @param count The number of integers
+	 */
+	public void randomInts(int min, int max, int[] values, int count) {
+		for (int i = 0; i < count; i++) {
+			values[i] = randomInt(min, max);
+		}
+	}
+
+	/**
+	 * Fills the first count places of the given array with random colors, each drawn like randomColor(), 
+	 * as packed ARGB values
+	 * @param argbs The array for the colors
+	 * @param count The number of colors
+	 */
+	public void randomColors(int[] argbs, int count) {
+		for (int i = 0; i < count; i++) {
+			argbs[i] = (210 << 24) | (randomInt(0,255) << 16) | (randomInt(0,255) << 8) | randomInt(0,255);
+		}
+	}
+
 	/**
 	 * Returns a random choice of one of two objects, x and y, where probX is the probability 
 	 * that x will be picked (0&lt;=x&lt;=1).
@@ -106,7 +197,7 @@ public class Randomizer implements IRandomizer {
 	 * @return Either x or y as per the probability of choosing them. 
 	 */
 	public Object randomChoice(Object x, Object y, double probX) {
-		return (Math.random()<probX) ? x: y;
+		return (nextDouble()<probX) ? x: y;
 
 	}
 }
@@ -0,0 +1,60 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * A compact table of per-item numbers, kept apart from the items in one primitive array with a row
+ * per item id and a fixed number of columns. A shared strategy keeps the state of each of its balls
+ * here instead of needing an instance per ball.
+ *
+ * The table grows when a row beyond its end is set, so rows should be set for the first time from
+ * one thread at a time, e.g. while a ball is made. Different rows may then be read and written from
+ * different threads at the same time.
+ *
+ * @author kq2
+ */
+public class SideTable {
+
+	/**
+	 * The number of numbers per row
+	 */
+	private final int columns;
+	/**
+	 * The rows, one after another
+	 */
+	private double[] values;
+
+	/**
+	 * Create an empty table
+	 * @param columns The number of numbers per row
+	 */
+	public SideTable(int columns) {
+		this.columns = columns;
+		this.values = new double[16 * columns];
+	}
+
+	/**
+	 * Get a number. Rows that were never set read as 0.
+	 * @param id The id of the row
+	 * @param column The column of the number
+	 * @return The number
+	 */
+	public double get(int id, int column) {
+		int i = id * columns + column;
+		return i < values.length ? values[i] : 0;
+	}
+
+	/**
+	 * Set a number, growing the table if the row is beyond its end
+	 * @param id The id of the row
+	 * @param column The column of the number
+	 * @param value The new number
+	 */
+	public void set(int id, int column, double value) {
+		int i = id * columns + column;
+		if (i >= values.length) {
+			values = Arrays.copyOf(values, Math.max(2 * values.length, (id + 1) * columns));
+		}
+		values[i] = value;
+	}
+}
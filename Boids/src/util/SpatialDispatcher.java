@@ -0,0 +1,152 @@
+package util;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Comparator;
+
+/**
+ * A DenseRegistry-based IDispatcher that dispatches to its IObservers sequentially and
+ * keeps a spatial index of them, so that region dispatches only visit the nearby IObservers.
+ * Unlike a Set, the registry can be sorted, e.g. to put IObservers that are near each other
+ * next to each other in the dispatch order.
+ *
+ * IObservers added or deleted during a dispatch, or during a batch opened with beginBatch(),
+ * e.g. a whole tick, are only added or deleted when the dispatch or batch ends.
+ * Until then, deleted IObservers keep receiving messages. Subclasses that tie resources to
+ * an IObserver can release them in observerRemoved(), which is called once it is really gone.
+ *
+ * The index is a snapshot that is only refreshed when reindex() is called, typically once per tick.
+ * IObservers added since then are not found by region dispatches, and deleted IObservers may
+ * still be found, until the next reindex().
+ *
+ * @author kq2
+ *
+ * @param <TDispMsg> The type of message sent to the registered IObservers
+ */
+public class SpatialDispatcher<TDispMsg> extends ACollectionDispatcher<TDispMsg> {
+
+	/**
+	 * The registered IObservers, the same Collection the superclass holds
+	 */
+	private final DenseRegistry<IObserver<TDispMsg>> observers;
+	/**
+	 * The spatial index of the registered IObservers
+	 */
+	private final ISpatialIndex<IObserver<TDispMsg>> index;
+
+	/**
+	 * Create a dispatcher that uses the given spatial index
+	 * @param index An (empty) spatial index for the IObservers
+	 */
+	public SpatialDispatcher(ISpatialIndex<IObserver<TDispMsg>> index) {
+		this(new DenseRegistry<IObserver<TDispMsg>>(), index);
+	}
+
+	/**
+	 * Create a dispatcher that stores its IObservers in the given registry
+	 * @param observers An empty registry for the IObservers
+	 * @param index An (empty) spatial index for the IObservers
+	 */
+	private SpatialDispatcher(DenseRegistry<IObserver<TDispMsg>> observers, ISpatialIndex<IObserver<TDispMsg>> index) {
+		super(observers);
+		this.observers = observers;
+		this.index = index;
+		observers.setRemoveListener(this::observerRemoved);
+	}
+
+	/**
+	 * Called when an IObserver actually leaves the dispatcher, i.e. when its deletion is applied 
+	 * after the dispatch or batch it was deleted in, or when all are deleted. Does nothing by default.
+	 * @param obs The IObserver that left
+	 */
+	protected void observerRemoved(IObserver<TDispMsg> obs) {
+	}
+
+	/**
+	 * {@inheritDoc}<br/>
+	 * Implementation: Sequential iteration through the registry of IObservers, as one batch.
+	 */
+	@Override
+	public void dispatch(TDispMsg msg) {
+		observers.beginBatch();
+		try {
+			for (int i = 0; i < observers.size(); i++) {
+				observers.get(i).execute(this, msg);
+			}
+		} finally {
+			observers.endBatch();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}<br/>
+	 * Implementation: Sequential iteration through the IObservers the spatial index finds near the center.
+	 */
+	@Override
+	public void dispatch(TDispMsg msg, Point2D center, double radius) {
+		observers.beginBatch();
+		try {
+			index.query(center.getX(), center.getY(), radius, o -> {
+				o.execute(this, msg);
+			});
+		} finally {
+			observers.endBatch();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}<br/>
+	 * Implementation: Sequential iteration through the IObservers the spatial index finds in the region.
+	 */
+	@Override
+	public void dispatch(TDispMsg msg, Rectangle2D region) {
+		observers.beginBatch();
+		try {
+			index.query(region, o -> {
+				o.execute(this, msg);
+			});
+		} finally {
+			observers.endBatch();
+		}
+	}
+
+	/**
+	 * Open a batch, e.g. for a whole tick. Until it ends, added and deleted IObservers are only queued.
+	 */
+	public void beginBatch() {
+		observers.beginBatch();
+	}
+
+	/**
+	 * Close a batch. When the outermost batch ends, the queued adds and deletes are applied.
+	 */
+	public void endBatch() {
+		observers.endBatch();
+	}
+
+	/**
+	 * Sort the registered IObservers, which changes the order in which they are dispatched to.
+	 * Must not be called during a dispatch.
+	 * @param order The order to sort the IObservers in
+	 */
+	public void sortObservers(Comparator<? super IObserver<TDispMsg>> order) {
+		observers.sort(order);
+	}
+
+	/**
+	 * Rebuild the spatial index from the current locations of the registered IObservers.
+	 */
+	public void reindex() {
+		index.rebuild(getCollection());
+	}
+
+	/**
+	 * {@inheritDoc}<br/>
+	 * Implementation: Also empties the spatial index.
+	 */
+	@Override
+	public void deleteObservers() {
+		super.deleteObservers();
+		index.clear();
+	}
+}
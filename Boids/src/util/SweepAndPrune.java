@@ -0,0 +1,218 @@
+package util;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * A sweep-and-prune spatial index that keeps the items sorted by the left edge of their extent.
+ * The sorted order is kept from one rebuild to the next, and since items only move a little
+ * between ticks, the insertion sort that restores the order is nearly linear.
+ * Queries only scan the slice of the order that overlaps the query horizontally, which makes
+ * this index best suited to small, contact-sized queries.
+ *
+ * @author kq2
+ *
+ * @param <T> The type of items being indexed
+ */
+public class SweepAndPrune<T> implements ISpatialIndex<T> {
+
+	/**
+	 * Tells where the items are
+	 */
+	private final ILocator<? super T> locator;
+	/**
+	 * The indexed items, sorted by minX
+	 */
+	private Object[] items = new Object[0];
+	/**
+	 * The left edge of each item's extent
+	 */
+	private double[] minX = new double[0];
+	/**
+	 * The right edge of each item's extent
+	 */
+	private double[] maxX = new double[0];
+	/**
+	 * The vertical center of each item
+	 */
+	private double[] y = new double[0];
+	/**
+	 * The extent of each item
+	 */
+	private double[] extent = new double[0];
+	/**
+	 * The number of indexed items
+	 */
+	private int size = 0;
+	/**
+	 * The largest extent of any indexed item
+	 */
+	private double maxExtent = 0.0;
+	/**
+	 * The rebuild in which each known item was last seen, used to find the items that went away
+	 */
+	private final IdentityHashMap<Object, int[]> lastSeen = new IdentityHashMap<Object, int[]>();
+	/**
+	 * Counts the rebuilds
+	 */
+	private int generation = 0;
+
+	/**
+	 * Create an empty sweep-and-prune index
+	 * @param locator Tells where the items are
+	 */
+	public SweepAndPrune(ILocator<? super T> locator) {
+		this.locator = locator;
+	}
+
+	@Override
+	public void rebuild(Collection<T> newItems) {
+		generation++;
+		int oldSize = size;
+		// mark the items that are still here and append the ones that are new
+		for (T item : newItems) {
+			int[] seen = lastSeen.get(item);
+			if (null == seen) {
+				lastSeen.put(item, new int[] { generation });
+				ensureCapacity(size + 1);
+				items[size++] = item;
+			} else {
+				seen[0] = generation;
+			}
+		}
+		// drop the old items that were not seen this time, keeping the order of the rest
+		int n = 0;
+		for (int i = 0; i < size; i++) {
+			if (i < oldSize && lastSeen.get(items[i])[0] != generation) {
+				lastSeen.remove(items[i]);
+			} else {
+				items[n++] = items[i];
+			}
+		}
+		Arrays.fill(items, n, size, null);
+		size = n;
+
+		maxExtent = 0.0;
+		for (int i = 0; i < size; i++) {
+			@SuppressWarnings("unchecked")
+			T item = (T) items[i];
+			double x = locator.getX(item);
+			extent[i] = locator.getExtent(item);
+			minX[i] = x - extent[i];
+			maxX[i] = x + extent[i];
+			y[i] = locator.getY(item);
+			maxExtent = Math.max(maxExtent, extent[i]);
+		}
+		insertionSort();
+	}
+
+	@Override
+	public void query(double qx, double qy, double radius, Consumer<? super T> visitor) {
+		// anything that starts further left than this cannot reach the query
+		int i = lowerBound(qx - radius - 2 * maxExtent);
+		for (; i < size && minX[i] <= qx + radius; i++) {
+			if (maxX[i] >= qx - radius && Math.abs(y[i] - qy) <= radius + extent[i]) {
+				@SuppressWarnings("unchecked")
+				T item = (T) items[i];
+				visitor.accept(item);
+			}
+		}
+	}
+
+	@Override
+	public void query(Rectangle2D region, Consumer<? super T> visitor) {
+		double x0 = region.getMinX(), y0 = region.getMinY(), x1 = region.getMaxX(), y1 = region.getMaxY();
+		int i = lowerBound(x0 - 2 * maxExtent);
+		for (; i < size && minX[i] <= x1; i++) {
+			if (maxX[i] >= x0 && y[i] + extent[i] >= y0 && y[i] - extent[i] <= y1) {
+				@SuppressWarnings("unchecked")
+				T item = (T) items[i];
+				visitor.accept(item);
+			}
+		}
+	}
+
+	/**
+	 * Visit every unordered pair of indexed items whose extents may overlap, exactly once.
+	 * @param visitor The function to run on each pair found
+	 */
+	public void forEachPair(BiConsumer<? super T, ? super T> visitor) {
+		for (int i = 0; i < size; i++) {
+			for (int j = i + 1; j < size && minX[j] <= maxX[i]; j++) {
+				if (Math.abs(y[i] - y[j]) <= extent[i] + extent[j]) {
+					@SuppressWarnings("unchecked")
+					T item1 = (T) items[i];
+					@SuppressWarnings("unchecked")
+					T item2 = (T) items[j];
+					visitor.accept(item1, item2);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(items, 0, size, null);
+		size = 0;
+		maxExtent = 0.0;
+		lastSeen.clear();
+	}
+
+	/**
+	 * Sort all the arrays by minX. Nearly linear when the items are nearly sorted already.
+	 */
+	private void insertionSort() {
+		for (int i = 1; i < size; i++) {
+			double key = minX[i];
+			int j = i - 1;
+			if (minX[j] <= key) continue;
+			Object item = items[i];
+			double hi = maxX[i], yi = y[i], ext = extent[i];
+			for (; j >= 0 && minX[j] > key; j--) {
+				items[j + 1] = items[j];
+				minX[j + 1] = minX[j];
+				maxX[j + 1] = maxX[j];
+				y[j + 1] = y[j];
+				extent[j + 1] = extent[j];
+			}
+			items[j + 1] = item;
+			minX[j + 1] = key;
+			maxX[j + 1] = hi;
+			y[j + 1] = yi;
+			extent[j + 1] = ext;
+		}
+	}
+
+	/**
+	 * Find the first item whose minX is at least the given value
+	 * @param value A horizontal coordinate
+	 * @return An index into the sorted arrays, or size if there is no such item
+	 */
+	private int lowerBound(double value) {
+		int lo = 0, hi = size;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (minX[mid] < value) lo = mid + 1;
+			else hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * Grow the arrays so they can hold at least the given number of items
+	 * @param capacity The number of items to hold
+	 */
+	private void ensureCapacity(int capacity) {
+		if (items.length >= capacity) return;
+		int newLength = Math.max(capacity, 2 * items.length);
+		items = Arrays.copyOf(items, newLength);
+		minX = Arrays.copyOf(minX, newLength);
+		maxX = Arrays.copyOf(maxX, newLength);
+		y = Arrays.copyOf(y, newLength);
+		extent = Arrays.copyOf(extent, newLength);
+	}
+}
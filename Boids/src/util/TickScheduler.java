@@ -0,0 +1,74 @@
+package util;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the periodic ticks of many independent worlds on one small, bounded pool of threads,
+ * instead of giving every world timers and threads of its own. A scheduled tick costs a queue
+ * entry while it waits, so idle worlds are nearly free, and the ticks of all the worlds share
+ * the pool's threads. The ticks of one world never overlap: a tick that runs late delays the
+ * next tick of the same world.
+ *
+ * @author kq2
+ */
+public class TickScheduler {
+
+	/**
+	 * Numbers the threads of all the schedulers, for their names
+	 */
+	private static final AtomicInteger threadCount = new AtomicInteger();
+
+	/**
+	 * The pool that runs the ticks
+	 */
+	private final ScheduledThreadPoolExecutor executor;
+
+	/**
+	 * Create a scheduler with one thread per processor
+	 */
+	public TickScheduler() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Create a scheduler with the given number of threads
+	 * @param threads The most ticks that run at the same time
+	 */
+	public TickScheduler(int threads) {
+		executor = new ScheduledThreadPoolExecutor(threads, r -> {
+			Thread thread = new Thread(r, "tick-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		// cancelled ticks leave the queue right away, so stopped worlds cost nothing
+		executor.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * Run the given tick periodically until the returned future is cancelled.
+	 * An exception thrown by the tick is printed and does not stop the later ticks.
+	 * @param tick The tick to run
+	 * @param periodMillis The time between the starts of two ticks, in milliseconds
+	 * @return The future to cancel to stop the ticks
+	 */
+	public ScheduledFuture<?> schedule(Runnable tick, long periodMillis) {
+		return executor.scheduleAtFixedRate(() -> {
+			try {
+				tick.run();
+			} catch (RuntimeException ex) {
+				System.err.println("Tick failed. \nException = \n" + ex);
+				ex.printStackTrace();
+			}
+		}, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stop all the ticks and the threads
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+}
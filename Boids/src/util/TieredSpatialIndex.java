@@ -0,0 +1,72 @@
+package util;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * A spatial index made of two spatial indices over the same items: one that is good at
+ * small queries, e.g. contact tests, and one that is good at large queries, e.g. sensing ranges.
+ * Each query goes to whichever index suits its radius.
+ *
+ * @author kq2
+ *
+ * @param <T> The type of items being indexed
+ */
+public class TieredSpatialIndex<T> implements ISpatialIndex<T> {
+
+	/**
+	 * The index used for queries up to nearRadius
+	 */
+	private final ISpatialIndex<T> nearIndex;
+	/**
+	 * The index used for queries beyond nearRadius
+	 */
+	private final ISpatialIndex<T> farIndex;
+	/**
+	 * The largest query radius that goes to the near index
+	 */
+	private final double nearRadius;
+
+	/**
+	 * Create an index that combines the two given indices
+	 * @param nearIndex The index used for queries up to nearRadius
+	 * @param farIndex The index used for queries beyond nearRadius
+	 * @param nearRadius The largest query radius that goes to the near index
+	 */
+	public TieredSpatialIndex(ISpatialIndex<T> nearIndex, ISpatialIndex<T> farIndex, double nearRadius) {
+		this.nearIndex = nearIndex;
+		this.farIndex = farIndex;
+		this.nearRadius = nearRadius;
+	}
+
+	@Override
+	public void rebuild(Collection<T> items) {
+		nearIndex.rebuild(items);
+		farIndex.rebuild(items);
+	}
+
+	@Override
+	public void query(double x, double y, double radius, Consumer<? super T> visitor) {
+		if (radius <= nearRadius) {
+			nearIndex.query(x, y, radius, visitor);
+		} else {
+			farIndex.query(x, y, radius, visitor);
+		}
+	}
+
+	@Override
+	public void query(Rectangle2D region, Consumer<? super T> visitor) {
+		if (Math.max(region.getWidth(), region.getHeight()) / 2.0 <= nearRadius) {
+			nearIndex.query(region, visitor);
+		} else {
+			farIndex.query(region, visitor);
+		}
+	}
+
+	@Override
+	public void clear() {
+		nearIndex.clear();
+		farIndex.clear();
+	}
+}
@@ -0,0 +1,79 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands the latest complete value from one writer thread to one reader thread without locks.
+ * There are three buffers: the writer owns one, the reader owns one, and the third one sits
+ * in the middle. Publishing swaps the writer's buffer with the middle one, and reading swaps the
+ * reader's buffer with the middle one if something new was published since, so neither side ever
+ * waits for the other, and the reader always sees a buffer the writer is done with.
+ *
+ * Only one thread at a time may write, and only one thread at a time may read.
+ *
+ * @author kq2
+ *
+ * @param <T> The type of the buffers
+ */
+public class TripleBuffer<T> {
+
+	/**
+	 * The bit set on the middle index when the middle buffer was published and not read yet
+	 */
+	private static final int FRESH = 4;
+
+	/**
+	 * The three buffers
+	 */
+	private final Object[] buffers;
+	/**
+	 * The index of the buffer the writer owns
+	 */
+	private int writing = 0;
+	/**
+	 * The index of the middle buffer, with the FRESH bit
+	 */
+	private final AtomicInteger middle = new AtomicInteger(1);
+	/**
+	 * The index of the buffer the reader owns
+	 */
+	private int reading = 2;
+
+	/**
+	 * Create a triple buffer. The reader starts with the third buffer.
+	 * @param first A buffer
+	 * @param second Another buffer
+	 * @param third The buffer the reader sees until something is published
+	 */
+	public TripleBuffer(T first, T second, T third) {
+		buffers = new Object[] { first, second, third };
+	}
+
+	/**
+	 * Get the buffer the writer fills, which stays the writer's until the next publish()
+	 * @return The writer's buffer
+	 */
+	@SuppressWarnings("unchecked")
+	public T getWriteBuffer() {
+		return (T) buffers[writing];
+	}
+
+	/**
+	 * Publish the writer's buffer and give the writer another one to fill
+	 */
+	public void publish() {
+		writing = middle.getAndSet(writing | FRESH) & ~FRESH;
+	}
+
+	/**
+	 * Get the latest published buffer, which stays the reader's until the next call
+	 * @return The reader's buffer
+	 */
+	@SuppressWarnings("unchecked")
+	public T getReadBuffer() {
+		if (0 != (middle.get() & FRESH)) {
+			reading = middle.getAndSet(reading) & ~FRESH;
+		}
+		return (T) buffers[reading];
+	}
+}
@@ -0,0 +1,191 @@
+package util;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * A spatial index that buckets items into square cells.
+ * Every rebuild sizes the cells to the largest query radius plus the largest extent of any item,
+ * so a query up to that radius only has to look at the 3x3 block of cells around the query center,
+ * even after widening it by the extent, and building the grid and running one query per item
+ * costs roughly linear time in the number of items.
+ *
+ * The cells are stored as one array of items sorted by cell (a counting sort), so rebuilding
+ * the grid every tick does not allocate once the arrays have grown to fit the population.
+ *
+ * @author kq2
+ *
+ * @param <T> The type of items being indexed
+ */
+public class UniformGrid<T> implements ISpatialIndex<T> {
+
+	/**
+	 * The largest query radius that is answered from the 3x3 block of cells around the query center
+	 */
+	private final double maxQueryRadius;
+	/**
+	 * The side length of a cell, the largest query radius plus the largest extent at the last rebuild
+	 */
+	private double cellSize;
+	/**
+	 * Tells where the items are
+	 */
+	private final ILocator<? super T> locator;
+	/**
+	 * The items, sorted by the cell they are in
+	 */
+	private Object[] items = new Object[0];
+	/**
+	 * The cell of each item in the order the items were given to rebuild()
+	 */
+	private int[] cellOf = new int[0];
+	/**
+	 * Scratch copy of the items in the order they were given to rebuild()
+	 */
+	private Object[] unsorted = new Object[0];
+	/**
+	 * Index into items where each cell starts. Cell i holds items[cellStart[i]] up to items[cellStart[i+1]-1].
+	 */
+	private int[] cellStart = new int[1];
+	/**
+	 * The column and row of the top-left cell in use
+	 */
+	private int minCol, minRow;
+	/**
+	 * The number of columns and rows in use
+	 */
+	private int cols, rows;
+	/**
+	 * The largest extent of any indexed item, added to every query radius
+	 */
+	private double maxExtent;
+
+	/**
+	 * Create an empty grid
+	 * @param maxQueryRadius The largest query radius that only looks at 3x3 cells, larger queries look at more
+	 * @param locator Tells where the items are
+	 */
+	public UniformGrid(double maxQueryRadius, ILocator<? super T> locator) {
+		this.maxQueryRadius = maxQueryRadius;
+		this.cellSize = maxQueryRadius;
+		this.locator = locator;
+	}
+
+	@Override
+	public void rebuild(Collection<T> newItems) {
+		int n = 0;
+		if (unsorted.length < newItems.size()) {
+			unsorted = new Object[newItems.size()];
+			cellOf = new int[newItems.size()];
+		}
+		maxExtent = 0.0;
+		// the collection may still grow while we copy it, so keep growing the scratch array if needed
+		for (T item : newItems) {
+			if (n == unsorted.length) {
+				unsorted = Arrays.copyOf(unsorted, 2 * n + 1);
+				cellOf = Arrays.copyOf(cellOf, 2 * n + 1);
+			}
+			unsorted[n++] = item;
+			maxExtent = Math.max(maxExtent, locator.getExtent(item));
+		}
+		if (0 == n) {
+			clear();
+			return;
+		}
+		cellSize = maxQueryRadius + maxExtent;
+		int maxCol = Integer.MIN_VALUE, maxRow = Integer.MIN_VALUE;
+		minCol = Integer.MAX_VALUE;
+		minRow = Integer.MAX_VALUE;
+		for (int i = 0; i < n; i++) {
+			@SuppressWarnings("unchecked")
+			T item = (T) unsorted[i];
+			int col = toCell(locator.getX(item));
+			int row = toCell(locator.getY(item));
+			minCol = Math.min(minCol, col);
+			maxCol = Math.max(maxCol, col);
+			minRow = Math.min(minRow, row);
+			maxRow = Math.max(maxRow, row);
+		}
+		cols = maxCol - minCol + 1;
+		rows = maxRow - minRow + 1;
+
+		// counting sort of the items by cell
+		int nCells = cols * rows;
+		if (cellStart.length < nCells + 1) cellStart = new int[nCells + 1];
+		Arrays.fill(cellStart, 0, nCells + 1, 0);
+		for (int i = 0; i < n; i++) {
+			@SuppressWarnings("unchecked")
+			T item = (T) unsorted[i];
+			int cell = (toCell(locator.getY(item)) - minRow) * cols + (toCell(locator.getX(item)) - minCol);
+			cellOf[i] = cell;
+			cellStart[cell + 1]++;
+		}
+		for (int c = 0; c < nCells; c++) {
+			cellStart[c + 1] += cellStart[c];
+		}
+		if (items.length < n) items = new Object[unsorted.length];
+		Arrays.fill(items, n, items.length, null);
+		for (int i = n - 1; i >= 0; i--) {
+			items[--cellStart[cellOf[i] + 1]] = unsorted[i];
+			unsorted[i] = null;
+		}
+		// the loop above left the start of cell c in cellStart[c+1], so shift everything down by one
+		System.arraycopy(cellStart, 1, cellStart, 0, nCells);
+		cellStart[nCells] = n;
+	}
+
+	@Override
+	public void query(double x, double y, double radius, Consumer<? super T> visitor) {
+		visitCells(x - radius, y - radius, x + radius, y + radius, visitor);
+	}
+
+	@Override
+	public void query(Rectangle2D region, Consumer<? super T> visitor) {
+		visitCells(region.getMinX(), region.getMinY(), region.getMaxX(), region.getMaxY(), visitor);
+	}
+
+	/**
+	 * Visit all the items in the cells that may hold items reaching into the given rectangle
+	 * @param x0 The left edge of the rectangle
+	 * @param y0 The top edge of the rectangle
+	 * @param x1 The right edge of the rectangle
+	 * @param y1 The bottom edge of the rectangle
+	 * @param visitor The function to run on each item found
+	 */
+	private void visitCells(double x0, double y0, double x1, double y1, Consumer<? super T> visitor) {
+		if (0 == cols) return;
+		int col0 = Math.max(toCell(x0 - maxExtent) - minCol, 0);
+		int col1 = Math.min(toCell(x1 + maxExtent) - minCol, cols - 1);
+		int row0 = Math.max(toCell(y0 - maxExtent) - minRow, 0);
+		int row1 = Math.min(toCell(y1 + maxExtent) - minRow, rows - 1);
+		for (int row = row0; row <= row1; row++) {
+			for (int col = col0; col <= col1; col++) {
+				int cell = row * cols + col;
+				for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+					@SuppressWarnings("unchecked")
+					T item = (T) items[i];
+					visitor.accept(item);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(items, null);
+		cols = 0;
+		rows = 0;
+		maxExtent = 0.0;
+	}
+
+	/**
+	 * Get the column or row of the cell that contains the given coordinate
+	 * @param coord A horizontal or vertical coordinate
+	 * @return The column or row of the cell
+	 */
+	private int toCell(double coord) {
+		return (int) Math.floor(coord / cellSize);
+	}
+}
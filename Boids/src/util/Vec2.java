@@ -0,0 +1,147 @@
+package util;
+
+/**
+ * A mutable 2D vector whose operations work in place and return the vector itself,
+ * so that a chain of vector math reuses the same few vectors instead of allocating a
+ * new one for every intermediate result.
+ *
+ * @author kq2
+ */
+public class Vec2 {
+
+	/**
+	 * The horizontal component
+	 */
+	public double x;
+	/**
+	 * The vertical component
+	 */
+	public double y;
+
+	/**
+	 * Create a zero vector
+	 */
+	public Vec2() {
+	}
+
+	/**
+	 * Set both components
+	 * @param x The horizontal component
+	 * @param y The vertical component
+	 * @return This vector
+	 */
+	public Vec2 set(double x, double y) {
+		this.x = x;
+		this.y = y;
+		return this;
+	}
+
+	/**
+	 * Copy the components of another vector
+	 * @param v Another vector
+	 * @return This vector
+	 */
+	public Vec2 set(Vec2 v) {
+		return set(v.x, v.y);
+	}
+
+	/**
+	 * Set this vector to zero
+	 * @return This vector
+	 */
+	public Vec2 zero() {
+		return set(0.0, 0.0);
+	}
+
+	/**
+	 * Add the given components to this vector
+	 * @param dx The horizontal component to add
+	 * @param dy The vertical component to add
+	 * @return This vector
+	 */
+	public Vec2 add(double dx, double dy) {
+		x += dx;
+		y += dy;
+		return this;
+	}
+
+	/**
+	 * Add another vector to this vector
+	 * @param v Another vector
+	 * @return This vector
+	 */
+	public Vec2 add(Vec2 v) {
+		return add(v.x, v.y);
+	}
+
+	/**
+	 * Set this vector to the vector from point (x1, y1) to point (x2, y2)
+	 * @param x1 The horizontal location of the first point
+	 * @param y1 The vertical location of the first point
+	 * @param x2 The horizontal location of the second point
+	 * @param y2 The vertical location of the second point
+	 * @return This vector
+	 */
+	public Vec2 setDiff(double x1, double y1, double x2, double y2) {
+		return set(x2 - x1, y2 - y1);
+	}
+
+	/**
+	 * Multiply this vector by a factor
+	 * @param factor A factor
+	 * @return This vector
+	 */
+	public Vec2 mul(double factor) {
+		x *= factor;
+		y *= factor;
+		return this;
+	}
+
+	/**
+	 * Divide this vector by a factor
+	 * @param factor A factor
+	 * @return This vector
+	 */
+	public Vec2 div(double factor) {
+		x /= factor;
+		y /= factor;
+		return this;
+	}
+
+	/**
+	 * Get the length of this vector
+	 * @return The length
+	 */
+	public double length() {
+		return Math.sqrt(lengthSq());
+	}
+
+	/**
+	 * Get the squared length of this vector
+	 * @return The squared length
+	 */
+	public double lengthSq() {
+		return x * x + y * y;
+	}
+
+	/**
+	 * Scale this vector to length 1
+	 * @return This vector
+	 */
+	public Vec2 normalize() {
+		return div(length());
+	}
+
+	/**
+	 * Scale this vector down to the given length if it is longer
+	 * @param max A maximum length
+	 * @return This vector
+	 */
+	public Vec2 limit(double max) {
+		double sq = lengthSq();
+		if (sq > max * max) {
+			mul(max / Math.sqrt(sq));
+		}
+		return this;
+	}
+}
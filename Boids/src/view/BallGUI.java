@@ -6,6 +6,7 @@ import java.awt.Graphics;
 import java.awt.FlowLayout;
 import java.awt.BorderLayout;
 import java.awt.GridLayout;
+import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 
@@ -14,6 +15,7 @@ import javax.swing.JPanel;
 import javax.swing.JButton;
 import javax.swing.JComboBox;
 import javax.swing.JTextField;
+import javax.swing.UIManager;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.TitledBorder;
 
@@ -76,6 +78,10 @@ public class BallGUI<TUpdateDropListItem, TPaintDropListItem> extends JFrame {
 	 * The panel with make-ball button and combine-strategy button
 	 */
 	private final JPanel pnlSwitch = new JPanel();
+	/**
+	 * The panel that makes many balls at once
+	 */
+	private final JPanel pnlBulk = new JPanel();
 	/**
 	 * The panel to clear/stop/start balls
 	 */
@@ -93,6 +99,10 @@ public class BallGUI<TUpdateDropListItem, TPaintDropListItem> extends JFrame {
 	 * The text field to type in paint strategy
 	 */
 	private final JTextField txfPaint = new JTextField();
+	/**
+	 * The text field to type in the number of balls to make at once
+	 */
+	private final JTextField txfCount = new JTextField();
 
 	/**
 	 * button to add a new update strategy to drop list
@@ -102,6 +112,10 @@ public class BallGUI<TUpdateDropListItem, TPaintDropListItem> extends JFrame {
 	 * button to make a ball
 	 */
 	private final JButton btnMakeBall = new JButton("Make Ball");
+	/**
+	 * button to make many balls at once
+	 */
+	private final JButton btnMakeBalls = new JButton("Make Balls");
 	/**
 	 * button to make a ball
 	 */
@@ -180,6 +194,7 @@ public class BallGUI<TUpdateDropListItem, TPaintDropListItem> extends JFrame {
 		pnlNorth.add(pnlUpdate);
 		pnlNorth.add(pnlUpdateList);
 		pnlNorth.add(pnlSwitch);
+		pnlNorth.add(pnlBulk);
 		pnlNorth.add(pnlClear);
 		pnlNorth.add(pnlPaint);
 
@@ -200,6 +215,11 @@ public class BallGUI<TUpdateDropListItem, TPaintDropListItem> extends JFrame {
 		pnlSwitch.add(btnMakeSwitcher);
 		pnlSwitch.add(btnSwitch);
 		
+		pnlBulk.setToolTipText("Make many balls at once");
+		pnlBulk.setLayout(new GridLayout(2, 1));
+		pnlBulk.add(txfCount);
+		pnlBulk.add(btnMakeBalls);
+		
 		pnlClear.setToolTipText("clear/stop/start");
 		pnlClear.setLayout(new GridLayout(2, 1));
 		pnlClear.add(btnClearAll);
@@ -215,6 +235,9 @@ public class BallGUI<TUpdateDropListItem, TPaintDropListItem> extends JFrame {
 		txfUpdate.setToolTipText("Color/Curve/Breathing/Drunken/Wander/Straight/Hold/Collide/Kill/Overlap/Bounce/Flocking");
 		txfUpdate.setText("Flocking");
 
+		txfCount.setToolTipText("Number of balls to make at once, a whole number above 0");
+		txfCount.setText("1000");
+
 		txfPaint.setToolTipText("Ball/Ellipse/Square/Fish1/Fish3/Clownfish/Mario");
 		txfPaint.setText("Clownfish");
 
@@ -257,6 +280,31 @@ public class BallGUI<TUpdateDropListItem, TPaintDropListItem> extends JFrame {
 			}
 		});
 
+		btnMakeBalls.setToolTipText("Make as many new balls as the number above");
+		btnMakeBalls.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				int count;
+				try {
+					count = Integer.parseInt(txfCount.getText().trim());
+				} catch (NumberFormatException ex) {
+					count = 0;
+				}
+				if (count < 1) {
+					// not a number of balls, beep and point the user at the field
+					Toolkit.getDefaultToolkit().beep();
+					txfCount.setBackground(Color.PINK);
+					txfCount.requestFocusInWindow();
+					txfCount.selectAll();
+					return;
+				}
+				txfCount.setBackground(UIManager.getColor("TextField.background"));
+				_modelControlAdpt.makeBalls(count, 
+						lstPaint.getItemAt(lstPaint.getSelectedIndex()), 
+						lstUpdate1.getItemAt(lstUpdate1.getSelectedIndex()));
+			}
+		});
+
 		btnCombine.setToolTipText("Combine the selected two strategies. ");
 		btnCombine.addActionListener(new ActionListener() {
 			public void actionPerformed(ActionEvent e) {
@@ -38,6 +38,14 @@ public interface IModelControlAdapter<TUpdateDropListItem, TPaintDropListItem> {
      */
     public void makeBall(TPaintDropListItem selectedItem1, TUpdateDropListItem selectedItem2);
     
+    /**
+     * Make many balls at once with the selected short strategy names.
+     * @param count  The number of balls to make
+     * @param selectedItem1  A shorten class name for the desired strategy
+     * @param selectedItem2  A shorten class name for the desired strategy
+     */
+    public void makeBalls(int count, TPaintDropListItem selectedItem1, TUpdateDropListItem selectedItem2);
+    
     /**
      * Make a ball that can switch to a new strategy
      * @param selectedItem  A shorten class name for the desired strategy